@@ -1,33 +1,138 @@
 package org.example;
 
+import org.example.cli.ExportSummary;
+import org.example.cli.ImportSummary;
+import org.example.cli.UserExporter;
+import org.example.cli.UserImporter;
 import org.example.dao.UserDAOImpl;
 import org.example.entity.User;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 /**
  * Entry point of the application.
  * Handles interaction with user inputs and delegates actions to the DAO layer.
+ * The blocking web application runs on JPA; the reactive stack lives in
+ * {@link org.example.reactive.ReactiveUserApplication}, so R2DBC is left out here.
+ * Scheduling runs housekeeping such as the purge of old deletion records.
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = {
+        R2dbcAutoConfiguration.class,
+        R2dbcDataAutoConfiguration.class,
+        R2dbcRepositoriesAutoConfiguration.class,
+        R2dbcTransactionManagerAutoConfiguration.class
+})
+@EnableScheduling
 public class Main {
 
+    /**
+     * Command-line argument selecting the non-interactive bulk import: {@code import <file>}.
+     */
+    static final String IMPORT_COMMAND = "import";
+
+    /**
+     * Command-line argument selecting the non-interactive bulk export: {@code export <dir> [ndjson|csv]}.
+     */
+    static final String EXPORT_COMMAND = "export";
+
+    /**
+     * Command-line argument selecting the one-time lower-casing of the stored email addresses: {@code migrate-emails}.
+     */
+    static final String MIGRATE_EMAILS_COMMAND = "migrate-emails";
+
+    /**
+     * Usage of the non-interactive commands, printed when their arguments are wrong.
+     */
+    static final String USAGE = "Usage: import <file> | export <dir> [ndjson|csv] | migrate-emails";
+
+    /**
+     * Exit status of a non-interactive command that failed.
+     */
+    static final int EXIT_FAILURE = 1;
+
+    /**
+     * Exit status of a non-interactive command started with wrong arguments.
+     */
+    static final int EXIT_USAGE = 2;
+
+    /**
+     * Number of users loaded per query when listing all users, so the console never holds the whole table.
+     */
+    static final int LIST_PAGE_SIZE = 100;
+
     /**
      * Application entry point.
-     * Runs the program loop until the user chooses to exit.
+     * Runs the program loop until the user chooses to exit, imports a file if started with {@code import <file>},
+     * exports all users if started with {@code export <dir> [ndjson|csv]},
+     * or lower-cases the stored email addresses once if started with {@code migrate-emails}.
+     * The non-interactive commands print their usage and exit with {@link #EXIT_USAGE} on wrong arguments,
+     * and exit with {@link #EXIT_FAILURE} if they fail, so scripts can tell.
      *
-     * @param args Command-line arguments (not used)
+     * @param args Command-line arguments: none for the interactive mode, {@code import <file>}
+     *             {@code export <dir> [ndjson|csv]} or {@code migrate-emails}
      */
     public static void main(String[] args) {
+        String command = args.length > 0 ? args[0] : null;
+        boolean nonInteractive = IMPORT_COMMAND.equals(command) || EXPORT_COMMAND.equals(command)
+                || MIGRATE_EMAILS_COMMAND.equals(command);
+        if (nonInteractive && !isValidCommand(args)) {
+            System.err.println(USAGE);
+            System.exit(EXIT_USAGE);
+        }
         try {
-            new Main().run();
+            if (IMPORT_COMMAND.equals(command)) {
+                console().importUsers(Path.of(args[1]));
+            } else if (EXPORT_COMMAND.equals(command)) {
+                UserExporter.Format format = args.length == 3
+                        ? UserExporter.Format.valueOf(args[2].toUpperCase(Locale.ROOT))
+                        : UserExporter.Format.NDJSON;
+                console().exportUsers(Path.of(args[1]), format);
+            } else if (MIGRATE_EMAILS_COMMAND.equals(command)) {
+                console().migrateEmails();
+            } else {
+                console().run();
+            }
         } catch (Exception e) {
             System.err.println("Error with data working!: " + e.getMessage());
+            if (nonInteractive) {
+                System.exit(EXIT_FAILURE);
+            }
         }
     }
 
+    /**
+     * Checks the arguments of a non-interactive command: {@code import <file>}, {@code export <dir> [ndjson|csv]}
+     * or {@code migrate-emails}.
+     *
+     * @param args command-line arguments starting with {@link #IMPORT_COMMAND}, {@link #EXPORT_COMMAND}
+     *             or {@link #MIGRATE_EMAILS_COMMAND}
+     * @return whether the command can be run with these arguments
+     */
+    static boolean isValidCommand(String[] args) {
+        if (MIGRATE_EMAILS_COMMAND.equals(args[0])) {
+            return args.length == 1;
+        }
+        if (IMPORT_COMMAND.equals(args[0])) {
+            return args.length == 2;
+        }
+        if (args.length == 3) {
+            return Arrays.stream(UserExporter.Format.values())
+                    .anyMatch(format -> format.name().equalsIgnoreCase(args[2]));
+        }
+        return args.length == 2;
+    }
+
     /**
      * DAO instance for working with user data.
      */
@@ -39,11 +144,30 @@ public class Main {
     private final Scanner scanner;
 
     /**
-     * Constructor that initializes DAO and scanner components.
+     * Constructor used by Spring, for which this class is only the application configuration.
+     * The console components are left out, so the web application does not open the standalone session factory.
      */
     public Main() {
-        this.userDAO = new UserDAOImpl();
-        this.scanner = new Scanner(System.in);
+        this(null, null);
+    }
+
+    /**
+     * Constructor that takes the DAO and scanner components of the console application.
+     *
+     * @param userDAO DAO instance for working with user data
+     * @param scanner input reader for the commands entered by the user
+     */
+    Main(UserDAOImpl userDAO, Scanner scanner) {
+        this.userDAO = userDAO;
+        this.scanner = scanner;
+    }
+
+    /**
+     * Creates the console application on the standalone DAO and the standard input.
+     * The DAO is not a Spring bean here, so its calls are not recorded in the DAO timer.
+     */
+    private static Main console() {
+        return new Main(new UserDAOImpl(), new Scanner(System.in));
     }
 
     /**
@@ -82,6 +206,52 @@ public class Main {
         }
     }
 
+    /**
+     * Imports users from a CSV or NDJSON file in batches and prints a summary.
+     *
+     * @param file the file to import
+     * @throws Exception if the file cannot be read or the database cannot be reached
+     */
+    void importUsers(Path file) throws Exception {
+        ImportSummary summary = new UserImporter(userDAO, System.out).importFile(file);
+        System.out.printf("Imported %,d users, rejected %,d rows in %.1f s (%,.0f rows/s)%n",
+                summary.imported(), summary.rejected(), summary.elapsed().toMillis() / 1000.0, summary.rowsPerSecond());
+        if (summary.rejectsFile() != null) {
+            System.out.println("Rejected rows were written to " + summary.rejectsFile());
+        }
+    }
+
+    /**
+     * Exports all users into gzip compressed shard files and a manifest, and prints a summary.
+     *
+     * @param directory the directory to write to
+     * @param format    format of the shard files
+     * @throws Exception if a file cannot be written or the database cannot be reached
+     */
+    void exportUsers(Path directory, UserExporter.Format format) throws Exception {
+        ExportSummary summary = new UserExporter(userDAO, System.out).export(directory, format);
+        System.out.printf("Exported %,d users into %d shards (%,d bytes) in %.1f s (%,.0f rows/s)%n",
+                summary.exported(), summary.shards(), summary.bytes(),
+                summary.elapsed().toMillis() / 1000.0, summary.rowsPerSecond());
+        System.out.println("Manifest written to " + summary.manifest());
+    }
+
+    /**
+     * Lower-cases the email addresses stored before {@link User#setEmail} normalized them, and reports the ones
+     * that could not be migrated. Lookups compare with the unique index on the stored value, so a mixed-case address
+     * would otherwise never match. Run once after upgrading; running it again changes nothing.
+     *
+     * @throws Exception if the database cannot be reached
+     */
+    void migrateEmails() throws Exception {
+        System.out.printf("Lower-cased the email addresses of %,d users%n", userDAO.lowerCaseEmails());
+        long conflicting = userDAO.countMixedCaseEmails();
+        if (conflicting > 0) {
+            System.out.printf("%,d users have an email address that differs from another user's only in case; "
+                    + "they are not found by email until the duplicates are resolved%n", conflicting);
+        }
+    }
+
     /**
      * Prints available commands to the console.
      */
@@ -117,12 +287,20 @@ public class Main {
     }
 
     /**
-     * Handles listing all users.
+     * Handles listing all users, one per line, paging through them by id.
      *
      * @throws Exception if something goes wrong while fetching users
      */
     void handleGetAllUsers() throws Exception {
-        System.out.println(userDAO.getAllUsers().toString());
+        Long afterId = null;
+        List<User> page;
+        do {
+            page = userDAO.getUsers(afterId, LIST_PAGE_SIZE);
+            page.forEach(System.out::println);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == LIST_PAGE_SIZE);
     }
 
     /**
@@ -140,10 +318,7 @@ public class Main {
         System.out.print("Enter age: ");
         Integer age = Integer.valueOf(scanner.nextLine());
 
-        User userSave = new User();
-        userSave.setName(username);
-        userSave.setEmail(email);
-        userSave.setAge(age);
+        User userSave = new User(username, email, age);
         userSave.setCreatedAt(LocalDateTime.now());
         userDAO.saveUser(userSave);
         System.out.println("User was created!");
@@ -159,7 +334,7 @@ public class Main {
         User userUpdate = userDAO.getUserById(Long.parseLong(scanner.nextLine()));
 
         System.out.print("Enter parameter you need to change with the naming (e.g. age;33): ");
-        String input = scanner.nextLine().toLowerCase();
+        String input = scanner.nextLine();
 
         String[] params = input.split(";");
         if (params.length != 2) {
@@ -167,7 +342,7 @@ public class Main {
             return;
         }
 
-        switch (params[0]) {
+        switch (params[0].toLowerCase(Locale.ROOT)) {
             case "name":
                 userUpdate.setName(params[1]);
                 break;
@@ -0,0 +1,19 @@
+package org.example;
+
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Entry point of the REST API.
+ * Starts the Spring Boot web application configured by {@link Main}; {@link Main#main} itself runs the console client.
+ */
+public class UserApiApplication {
+
+    /**
+     * REST API entry point.
+     *
+     * @param args Command-line arguments passed on to Spring Boot
+     */
+    public static void main(String[] args) {
+        SpringApplication.run(Main.class, args);
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.entity.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Configuration class active under the "cache" profile, which enables the Hibernate second-level and query cache
+ * (see {@code application-cache.properties}). Publishes hit, miss and put counts of the user cache regions as metrics.
+ */
+@Configuration
+@Profile("cache")
+public class UserCacheConfig {
+
+    /**
+     * Registers {@code user.cache.hits}, {@code user.cache.misses} and {@code user.cache.puts} counters,
+     * tagged with the cache region they belong to.
+     *
+     * @param entityManagerFactory factory whose Hibernate statistics are read
+     * @return binder registering the counters
+     */
+    @Bean
+    public MeterBinder userCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            bindRegion(registry, statistics, User.CACHE_REGION, false);
+            bindRegion(registry, statistics, User.EMAIL_QUERY_CACHE_REGION, true);
+        };
+    }
+
+    /**
+     * Binds the counters of a single cache region.
+     * Region statistics are looked up on every scrape because Hibernate creates them lazily.
+     */
+    private void bindRegion(MeterRegistry registry, Statistics statistics, String region, boolean queryRegion) {
+        ToDoubleFunction<Statistics> hits = s -> count(s, region, queryRegion, CacheRegionStatistics::getHitCount);
+        ToDoubleFunction<Statistics> misses = s -> count(s, region, queryRegion, CacheRegionStatistics::getMissCount);
+        ToDoubleFunction<Statistics> puts = s -> count(s, region, queryRegion, CacheRegionStatistics::getPutCount);
+
+        FunctionCounter.builder("user.cache.hits", statistics, hits).tag("region", region).register(registry);
+        FunctionCounter.builder("user.cache.misses", statistics, misses).tag("region", region).register(registry);
+        FunctionCounter.builder("user.cache.puts", statistics, puts).tag("region", region).register(registry);
+    }
+
+    private static double count(Statistics statistics, String region, boolean queryRegion,
+                                ToLongFunction<CacheRegionStatistics> counter) {
+        CacheRegionStatistics regionStatistics = queryRegion
+                ? statistics.getQueryRegionStatistics(region)
+                : statistics.getDomainDataRegionStatistics(region);
+        return regionStatistics == null ? 0 : counter.applyAsLong(regionStatistics);
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.cache;
+
+import org.example.entity.User;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+/**
+ * Evicts a single written user from the second-level cache, for the single-row UPDATE and DELETE statements of both
+ * write paths ({@link org.example.entity.UserRepository} and {@link org.example.dao.UserDAOImpl}).
+ * <p>
+ * The statements declare the query space {@value User#SINGLE_ROW_QUERY_SPACE} instead of the users table, because
+ * Hibernate drops the whole cache region of every entity whose table a bulk statement names. Instead, the written
+ * user's entry and the cached lookups by email, which may still point at the old address, are evicted once the
+ * transaction has completed. Without the "cache" profile the second-level cache is disabled and this does nothing.
+ */
+public final class UserCacheEviction {
+
+    private UserCacheEviction() {
+    }
+
+    /**
+     * Evicts one user and the cached lookups by email.
+     *
+     * @param sessionFactory factory owning the second-level cache
+     * @param id             identifier of the written user
+     */
+    public static void evict(SessionFactory sessionFactory, Long id) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(User.class, id);
+        cache.evictQueryRegion(User.EMAIL_QUERY_CACHE_REGION);
+    }
+}
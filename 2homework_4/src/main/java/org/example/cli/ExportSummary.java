@@ -0,0 +1,24 @@
+package org.example.cli;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Outcome of a bulk export.
+ *
+ * @param exported number of users written
+ * @param shards   number of shard files
+ * @param bytes    compressed size of all shard files
+ * @param elapsed  duration of the whole export
+ * @param manifest file describing the shards
+ */
+public record ExportSummary(long exported, int shards, long bytes, Duration elapsed, Path manifest) {
+
+    /**
+     * Returns the number of exported rows per second.
+     */
+    public double rowsPerSecond() {
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+        return exported / seconds;
+    }
+}
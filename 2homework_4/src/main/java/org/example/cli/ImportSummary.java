@@ -0,0 +1,23 @@
+package org.example.cli;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param imported    number of users inserted
+ * @param rejected    number of rows written to the rejects file
+ * @param elapsed     duration of the whole import
+ * @param rejectsFile file holding the rejected rows, or null if there were none
+ */
+public record ImportSummary(long imported, long rejected, Duration elapsed, Path rejectsFile) {
+
+    /**
+     * Returns the number of processed rows, imported or rejected, per second.
+     */
+    public double rowsPerSecond() {
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+        return (imported + rejected) / seconds;
+    }
+}
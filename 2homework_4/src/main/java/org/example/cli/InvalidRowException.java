@@ -0,0 +1,17 @@
+package org.example.cli;
+
+/**
+ * Thrown when a line of an import file cannot be turned into a valid user.
+ * The row is written to the rejects file with the message as reason.
+ */
+class InvalidRowException extends Exception {
+
+    /**
+     * Creates the exception with the reason for rejecting the row.
+     *
+     * @param reason why the row is rejected
+     */
+    InvalidRowException(String reason) {
+        super(reason);
+    }
+}
@@ -0,0 +1,282 @@
+package org.example.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.dao.UserDAO;
+import org.example.entity.User;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk export of all users into gzip compressed shard files plus a manifest.
+ * <p>
+ * The id space between the smallest and the largest id is cut into contiguous ranges, more of them than there
+ * are workers so that gaps in the ids do not leave one worker with most of the rows. Each range is read on a
+ * {@link ForkJoinPool} through its own read-only cursor ({@link UserDAO#forEachUser(long, long, java.util.function.Consumer)})
+ * and streamed into {@code users-<n>.<format>.gz}, ordered by id. The files are in the format {@link UserImporter}
+ * reads once decompressed, with the additional columns {@code id}, {@code created_at} and {@code updated_at}.
+ * <p>
+ * {@code manifest.json} lists every shard with its id range, row count, size and SHA-256 checksum. It is written
+ * last, so a directory without a manifest holds an incomplete export.
+ */
+public final class UserExporter {
+
+    /**
+     * Output formats of the shard files.
+     */
+    public enum Format {
+        NDJSON, CSV;
+
+        /**
+         * Returns the file extension of the uncompressed format.
+         */
+        public String extension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Name of the manifest file in the export directory.
+     */
+    public static final String MANIFEST_FILE = "manifest.json";
+
+    /**
+     * Number of id ranges per worker.
+     */
+    static final int SHARDS_PER_WORKER = 4;
+
+    /**
+     * Upper bound of the default number of workers, below the size of the connection pool.
+     */
+    private static final int MAX_DEFAULT_WORKERS = 8;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final String CSV_HEADER = "id,name,email,age,created_at,updated_at";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final UserDAO userDAO;
+    private final int workers;
+    private final int shards;
+    private final PrintStream out;
+
+    /**
+     * Creates an exporter with one worker per available processor, at most {@value #MAX_DEFAULT_WORKERS}.
+     *
+     * @param userDAO DAO to read the users through
+     * @param out     stream for progress reports
+     */
+    public UserExporter(UserDAO userDAO, PrintStream out) {
+        this(userDAO, Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_WORKERS), out);
+    }
+
+    /**
+     * Creates an exporter with an explicit number of workers.
+     *
+     * @param userDAO DAO to read the users through
+     * @param workers number of ranges read concurrently, each holding a database connection
+     * @param out     stream for progress reports
+     */
+    public UserExporter(UserDAO userDAO, int workers, PrintStream out) {
+        this.userDAO = userDAO;
+        this.workers = workers;
+        this.shards = workers * SHARDS_PER_WORKER;
+        this.out = out;
+    }
+
+    /**
+     * Exports all users into a directory.
+     *
+     * @param directory target directory, created if missing; existing shard files are overwritten
+     *                  and the manifest of a previous export is deleted before the first of them
+     * @param format    format of the shard files
+     * @return counts, size and duration of the export
+     * @throws Exception if a shard cannot be written or the database cannot be reached;
+     *                   no manifest is written in that case
+     */
+    public ExportSummary export(Path directory, Format format) throws Exception {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        // the old manifest would otherwise vouch for shards that this export overwrites
+        Files.deleteIfExists(directory.resolve(MANIFEST_FILE));
+        List<Range> ranges = split(userDAO.getIdRange(), shards);
+
+        AtomicInteger completed = new AtomicInteger();
+        List<Callable<Shard>> tasks = new ArrayList<>(ranges.size());
+        for (Range range : ranges) {
+            tasks.add(() -> {
+                Shard shard = write(directory, format, range);
+                out.printf("shard %d/%d: %,d users, ids %d-%d%n", completed.incrementAndGet(), ranges.size(),
+                        shard.rows(), range.fromId(), range.toId() - 1);
+                return shard;
+            });
+        }
+
+        List<Shard> written = new ArrayList<>(ranges.size());
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            for (Future<Shard> future : pool.invokeAll(tasks)) {
+                written.add(await(future));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Path manifest = writeManifest(directory, format, written);
+        long rows = written.stream().mapToLong(Shard::rows).sum();
+        long bytes = written.stream().mapToLong(Shard::bytes).sum();
+        return new ExportSummary(rows, written.size(), bytes, Duration.ofNanos(System.nanoTime() - start), manifest);
+    }
+
+    /**
+     * Cuts the id span into at most {@code count} contiguous ranges of equal width.
+     *
+     * @param idRange smallest and largest id, or null if there are no users
+     */
+    static List<Range> split(long[] idRange, int count) {
+        if (idRange == null) {
+            return List.of();
+        }
+        long min = idRange[0];
+        long end = idRange[1] + 1;
+        long span = end - min;
+        long width = (span + Math.min(count, span) - 1) / Math.min(count, span);
+
+        List<Range> ranges = new ArrayList<>();
+        for (long from = min; from < end; from += width) {
+            ranges.add(new Range(ranges.size(), from, Math.min(from + width, end)));
+        }
+        return ranges;
+    }
+
+    /**
+     * Streams the users of one range into its shard file and checksums the compressed bytes on the way.
+     */
+    private Shard write(Path directory, Format format, Range range) throws Exception {
+        Path file = directory.resolve(String.format("users-%05d.%s.gz", range.index(), format.extension()));
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        long rows;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                new DigestOutputStream(Files.newOutputStream(file), sha256), WRITE_BUFFER_SIZE),
+                StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+            rows = format == Format.CSV ? writeCsv(writer, range) : writeNdjson(writer, range);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Shard(file.getFileName().toString(), range, rows, Files.size(file),
+                HexFormat.of().formatHex(sha256.digest()));
+    }
+
+    private long writeNdjson(Writer writer, Range range) throws Exception {
+        try (JsonGenerator json = JSON.getFactory().createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            return userDAO.forEachUser(range.fromId(), range.toId(), user -> {
+                try {
+                    json.writeStartObject();
+                    json.writeNumberField("id", user.getId());
+                    json.writeStringField("name", user.getName());
+                    json.writeStringField("email", user.getEmail());
+                    json.writeNumberField("age", user.getAge());
+                    json.writeStringField("createdAt", String.valueOf(user.getCreatedAt()));
+                    json.writeStringField("updatedAt", String.valueOf(user.getUpdatedAt()));
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private long writeCsv(Writer writer, Range range) throws Exception {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        return userDAO.forEachUser(range.fromId(), range.toId(), user -> {
+            try {
+                writer.write(user.getId() + "," + csv(user.getName()) + "," + csv(user.getEmail()) + ","
+                        + user.getAge() + "," + user.getCreatedAt() + "," + user.getUpdatedAt() + "\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Writes the manifest under a temporary name and renames it, so it never appears half written.
+     */
+    private static Path writeManifest(Path directory, Format format, List<Shard> shards) throws IOException {
+        ObjectNode manifest = JSON.createObjectNode()
+                .put("createdAt", Instant.now().toString())
+                .put("format", format.extension())
+                .put("compression", "gzip")
+                .put("users", shards.stream().mapToLong(Shard::rows).sum());
+        ArrayNode files = manifest.putArray("shards");
+        for (Shard shard : shards) {
+            files.addObject()
+                    .put("file", shard.file())
+                    .put("fromId", shard.range().fromId())
+                    .put("toId", shard.range().toId() - 1)
+                    .put("users", shard.rows())
+                    .put("bytes", shard.bytes())
+                    .put("sha256", shard.sha256());
+        }
+
+        Path file = directory.resolve(MANIFEST_FILE);
+        Path temporary = directory.resolve(MANIFEST_FILE + ".tmp");
+        JSON.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), manifest);
+        return Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Shard await(Future<Shard> shard) throws Exception {
+        try {
+            return shard.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Ids from {@code fromId} (inclusive) to {@code toId} (exclusive), exported into shard number {@code index}.
+     */
+    record Range(int index, long fromId, long toId) {
+    }
+
+    /**
+     * A written shard file.
+     */
+    private record Shard(String file, Range range, long rows, long bytes, String sha256) {
+    }
+}
@@ -0,0 +1,316 @@
+package org.example.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dao.UserBatchWriter;
+import org.example.dao.UserDAO;
+import org.example.entity.User;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk import of users from a CSV or NDJSON file (see {@link UserRowParser} for the formats).
+ * <p>
+ * The work is split into three stages connected by a bounded queue, so memory use does not depend on the file size:
+ * <ol>
+ *     <li>a reader thread streams the file through a buffered {@link FileChannel} and cuts it into chunks of lines</li>
+ *     <li>a pool of workers parses and validates the chunks in parallel</li>
+ *     <li>the calling thread takes the parsed chunks in file order and inserts the valid users in batches,
+ *     one transaction per batch, through a single {@link UserBatchWriter}</li>
+ * </ol>
+ * When a batch fails, its rows are written again one by one, so a single bad row does not cost the whole batch.
+ * Invalid rows, rows with an email that already exists and rows that failed on their own are written to
+ * {@code <file>.rejects} as NDJSON objects with line number, reason and raw row; the import carries on.
+ * A byte order mark at the start of the file is ignored.
+ */
+public final class UserImporter {
+
+    /**
+     * Number of users inserted per transaction.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Number of lines handed to a parser worker at once.
+     */
+    static final int CHUNK_LINES = 1000;
+
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(2);
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    /**
+     * Marks the end of the file in the chunk queue.
+     */
+    private static final Future<List<Row>> END = CompletableFuture.completedFuture(List.of());
+
+    private final UserDAO userDAO;
+    private final int workers;
+    private final int batchSize;
+    private final PrintStream out;
+
+    /**
+     * Creates an importer with one parser worker per available processor and the default batch size.
+     *
+     * @param userDAO DAO to insert the users through
+     * @param out     stream for progress reports
+     */
+    public UserImporter(UserDAO userDAO, PrintStream out) {
+        this(userDAO, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE, out);
+    }
+
+    /**
+     * Creates an importer with explicit settings.
+     *
+     * @param userDAO   DAO to insert the users through
+     * @param workers   number of parser threads
+     * @param batchSize number of users inserted per transaction
+     * @param out       stream for progress reports
+     */
+    public UserImporter(UserDAO userDAO, int workers, int batchSize, PrintStream out) {
+        this.userDAO = userDAO;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.out = out;
+    }
+
+    /**
+     * Imports all users of a file.
+     *
+     * @param file CSV or NDJSON file
+     * @return counts and duration of the import
+     * @throws Exception if the file cannot be read or the database cannot be reached;
+     *                   users of batches committed before remain imported
+     */
+    public ImportSummary importFile(Path file) throws Exception {
+        Path rejectsFile = file.resolveSibling(file.getFileName() + ".rejects");
+        ExecutorService parsers = Executors.newFixedThreadPool(workers);
+        BlockingQueue<Future<List<Row>>> chunks = new ArrayBlockingQueue<>(workers * 2);
+        Thread reader = new Thread(() -> read(file, parsers, chunks), "user-import-reader");
+        Progress progress = new Progress(System.nanoTime());
+
+        reader.start();
+        try (UserBatchWriter writer = userDAO.openBatchWriter();
+             BufferedWriter rejects = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8)) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            for (Future<List<Row>> chunk = chunks.take(); chunk != END; chunk = chunks.take()) {
+                for (Row row : await(chunk)) {
+                    if (row.error() != null) {
+                        reject(rejects, row, row.error(), progress);
+                        continue;
+                    }
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        write(writer, batch, rejects, progress);
+                        batch.clear();
+                    }
+                }
+                progress.reportIfDue();
+            }
+            write(writer, batch, rejects, progress);
+        } finally {
+            reader.interrupt();
+            parsers.shutdownNow();
+        }
+
+        if (progress.rejected == 0) {
+            Files.deleteIfExists(rejectsFile);
+        }
+        return new ImportSummary(progress.imported, progress.rejected,
+                Duration.ofNanos(System.nanoTime() - progress.start), progress.rejected == 0 ? null : rejectsFile);
+    }
+
+    /**
+     * Streams the file, submits its lines to the parsers in chunks and queues the pending results in file order.
+     * Blocks while the queue is full, so reading never runs far ahead of writing.
+     */
+    private void read(Path file, ExecutorService parsers, BlockingQueue<Future<List<Row>>> chunks) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader lines = new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), READ_BUFFER_SIZE), READ_BUFFER_SIZE)) {
+            long lineNumber = 0;
+            String header = null;
+            if (UserRowParser.hasHeader(file)) {
+                header = withoutByteOrderMark(lines.readLine());
+                lineNumber++;
+            }
+            UserRowParser parser = UserRowParser.forFile(file, header);
+
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            long chunkStart = lineNumber + 1;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1) {
+                    line = withoutByteOrderMark(line);
+                }
+                if (chunk.isEmpty()) {
+                    chunkStart = lineNumber;
+                }
+                chunk.add(line);
+                if (chunk.size() == CHUNK_LINES) {
+                    chunks.put(submit(parsers, parser, chunk, chunkStart));
+                    chunk = new ArrayList<>(CHUNK_LINES);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.put(submit(parsers, parser, chunk, chunkStart));
+            }
+            chunks.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            chunks.clear();
+            chunks.offer(CompletableFuture.failedFuture(e));
+        }
+    }
+
+    /**
+     * Removes the byte order mark some editors put in front of the first line of a UTF-8 file.
+     */
+    private static String withoutByteOrderMark(String line) {
+        return line != null && line.startsWith(BYTE_ORDER_MARK) ? line.substring(BYTE_ORDER_MARK.length()) : line;
+    }
+
+    /**
+     * Parses a chunk of consecutive lines on the worker pool; blank lines are skipped.
+     */
+    private static Future<List<Row>> submit(ExecutorService parsers, UserRowParser parser,
+                                            List<String> lines, long firstLine) {
+        return parsers.submit(() -> {
+            List<Row> rows = new ArrayList<>(lines.size());
+            long lineNumber = firstLine;
+            for (String line : lines) {
+                if (line.isBlank()) {
+                    lineNumber++;
+                    continue;
+                }
+                try {
+                    rows.add(new Row(lineNumber, line, parser.parse(line), null));
+                } catch (InvalidRowException e) {
+                    rows.add(new Row(lineNumber, line, null, e.getMessage()));
+                }
+                lineNumber++;
+            }
+            return rows;
+        });
+    }
+
+    private static List<Row> await(Future<List<Row>> chunk) throws Exception {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Inserts one batch and rejects the duplicates; a failed batch is retried row by row.
+     */
+    private static void write(UserBatchWriter writer, List<Row> batch, BufferedWriter rejects, Progress progress)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<User> users = new ArrayList<>(batch.size());
+        batch.forEach(row -> users.add(row.user()));
+
+        Set<User> duplicates = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            duplicates.addAll(writer.write(users));
+        } catch (Exception e) {
+            for (Row row : batch) {
+                writeSingle(writer, row, rejects, progress);
+            }
+            return;
+        }
+
+        for (Row row : batch) {
+            if (duplicates.contains(row.user())) {
+                reject(rejects, row, "email already exists: " + row.user().getEmail(), progress);
+            } else {
+                progress.imported++;
+            }
+        }
+    }
+
+    /**
+     * Inserts one row of a failed batch on its own; it is rejected if it is a duplicate or fails again.
+     */
+    private static void writeSingle(UserBatchWriter writer, Row row, BufferedWriter rejects, Progress progress)
+            throws IOException {
+        try {
+            if (writer.write(List.of(row.user())).isEmpty()) {
+                progress.imported++;
+            } else {
+                reject(rejects, row, "email already exists: " + row.user().getEmail(), progress);
+            }
+        } catch (Exception e) {
+            reject(rejects, row, "insert failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()),
+                    progress);
+        }
+    }
+
+    private static void reject(BufferedWriter rejects, Row row, String reason, Progress progress) throws IOException {
+        rejects.write(JSON.writeValueAsString(JSON.createObjectNode()
+                .put("line", row.lineNumber())
+                .put("reason", reason)
+                .put("row", row.raw())));
+        rejects.newLine();
+        progress.rejected++;
+    }
+
+    /**
+     * One parsed line: either a user or the reason it was rejected.
+     */
+    private record Row(long lineNumber, String raw, User user, String error) {
+    }
+
+    /**
+     * Counters of the running import, only touched by the writing thread.
+     */
+    private final class Progress {
+
+        private final long start;
+        private long lastReport;
+        private long imported;
+        private long rejected;
+
+        Progress(long start) {
+            this.start = start;
+            this.lastReport = start;
+        }
+
+        void reportIfDue() {
+            long now = System.nanoTime();
+            if (now - lastReport >= PROGRESS_INTERVAL.toNanos()) {
+                lastReport = now;
+                double seconds = (now - start) / 1e9;
+                out.printf("%,d imported, %,d rejected, %,.0f rows/s%n",
+                        imported, rejected, (imported + rejected) / seconds);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.example.cli;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.entity.User;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Parses and validates single lines of an import file into users. Instances are immutable and thread-safe.
+ * <p>
+ * Two formats are supported, chosen by file extension:
+ * <ul>
+ *     <li>{@code .csv} - a header line naming the columns {@code name}, {@code email} and {@code age} in any order,
+ *     then one user per line; fields may be double-quoted, but must not contain line breaks</li>
+ *     <li>{@code .ndjson} / {@code .jsonl} - one JSON object with these properties per line</li>
+ * </ul>
+ * Validation follows {@link org.example.dto.UserRequestDTO}, including its mandatory age.
+ */
+final class UserRowParser {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    private static final int MIN_NAME_LENGTH = 2;
+    private static final int MAX_NAME_LENGTH = 50;
+    private static final int MAX_AGE = 150;
+
+    /**
+     * Column positions of a CSV file, or null for NDJSON.
+     */
+    private final int[] columns;
+
+    /**
+     * Minimum number of fields a CSV line needs to contain all columns.
+     */
+    private final int requiredFields;
+
+    private UserRowParser(int[] columns) {
+        this.columns = columns;
+        this.requiredFields = columns == null ? 0 : Math.max(columns[0], Math.max(columns[1], columns[2])) + 1;
+    }
+
+    /**
+     * Returns whether the file format starts with a header line that {@link #forFile} needs.
+     */
+    static boolean hasHeader(Path file) {
+        return isCsv(file);
+    }
+
+    /**
+     * Creates the parser for a file.
+     *
+     * @param file   the file to import, its extension selects the format
+     * @param header the first line of a CSV file, ignored for NDJSON
+     * @throws IllegalArgumentException if the extension is unknown or the CSV header lacks a column
+     */
+    static UserRowParser forFile(Path file, String header) {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (isCsv(file)) {
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file has no header line: " + file);
+            }
+            List<String> names = new ArrayList<>();
+            for (String name : splitCsv(header)) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+            return new UserRowParser(new int[]{
+                    column(names, "name"), column(names, "email"), column(names, "age")});
+        }
+        if (fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl")) {
+            return new UserRowParser(null);
+        }
+        throw new IllegalArgumentException("Unsupported file type, expected .csv, .ndjson or .jsonl: " + file);
+    }
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    private static int column(List<String> names, String name) {
+        int index = names.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("CSV header has no '" + name + "' column: " + names);
+        }
+        return index;
+    }
+
+    /**
+     * Parses one line into a new, not yet persisted user.
+     *
+     * @param line the raw line
+     * @return the user
+     * @throws InvalidRowException if the line is malformed or a value is invalid
+     */
+    User parse(String line) throws InvalidRowException {
+        String name;
+        String email;
+        String age;
+        if (columns != null) {
+            List<String> fields = splitCsv(line);
+            if (fields.size() < requiredFields) {
+                throw new InvalidRowException("expected " + requiredFields + " fields, found " + fields.size());
+            }
+            name = fields.get(columns[0]);
+            email = fields.get(columns[1]);
+            age = fields.get(columns[2]);
+        } else {
+            JsonNode node;
+            try {
+                node = JSON.readTree(line);
+            } catch (JsonProcessingException e) {
+                throw new InvalidRowException("malformed JSON: " + e.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                throw new InvalidRowException("expected a JSON object");
+            }
+            name = text(node, "name");
+            email = text(node, "email");
+            age = text(node, "age");
+        }
+        return validate(name, email, age);
+    }
+
+    private static String text(JsonNode node, String property) {
+        JsonNode value = node.get(property);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static User validate(String name, String email, String age) throws InvalidRowException {
+        name = name == null ? "" : name.trim();
+        if (name.length() < MIN_NAME_LENGTH || name.length() > MAX_NAME_LENGTH) {
+            throw new InvalidRowException("name must have " + MIN_NAME_LENGTH + " to " + MAX_NAME_LENGTH + " characters");
+        }
+        email = email == null ? "" : email.trim();
+        if (!EMAIL.matcher(email).matches()) {
+            throw new InvalidRowException("invalid email: " + email);
+        }
+        int parsedAge;
+        try {
+            parsedAge = Integer.parseInt(age == null ? "" : age.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidRowException("invalid age: " + age);
+        }
+        if (parsedAge < 0 || parsedAge > MAX_AGE) {
+            throw new InvalidRowException("age out of range: " + parsedAge);
+        }
+
+        User user = new User(name, email, parsedAge);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    /**
+     * Splits a CSV line on commas outside double quotes; {@code ""} inside quotes is an escaped quote.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.controller;
+
+import org.example.service.UserChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Controller streaming committed user changes to subscribers as Server-Sent Events.
+ */
+@Tag(name = "User Change Feed", description = "Real-time notification of user changes.")
+@RestController
+@RequestMapping("/api/v1/users")
+public class UserChangeFeedController {
+
+    private final UserChangeFeed userChangeFeed;
+
+    /**
+     * Constructor injection of the {@link UserChangeFeed}.
+     *
+     * @param userChangeFeed Feed publishing committed user changes.
+     */
+    public UserChangeFeedController(UserChangeFeed userChangeFeed) {
+        this.userChangeFeed = userChangeFeed;
+    }
+
+    /**
+     * Subscribes to user changes. Every {@code user-change} event carries a {@code UserChangeDTO};
+     * a {@code reset} event means changes were missed and the client should resync through delta sync.
+     *
+     * @param lastEventId Id of the last event received, sent by EventSource clients when reconnecting.
+     * @return Emitter kept open until the subscription times out or the client disconnects.
+     */
+    @Operation(
+            summary = "Stream committed user changes as Server-Sent Events.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Event stream opened.")
+            })
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return userChangeFeed.subscribe(lastEventId);
+    }
+}
@@ -1,11 +1,22 @@
 package org.example.controller;
 
+import org.example.dto.UserBatchResultDTO;
+import org.example.dto.UserChangesDTO;
+import org.example.dto.UserCreationStatusDTO;
+import org.example.dto.UserLookupDTO;
+import org.example.dto.UserPageDTO;
 import org.example.dto.UserRequestDTO;
 import org.example.dto.UserResponseDTO;
-import org.example.entity.User;
+import org.example.dto.UserSearchCriteriaDTO;
 import org.example.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,16 +24,27 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
-import javax.validation.Valid;
+import jakarta.validation.Valid;
+import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller for handling CRUD operations on Users.
+ * Payloads are JSON by default; clients may request compact binary encodings of the same structure
+ * through the Accept / Content-Type headers: {@code application/cbor} or {@code application/x-jackson-smile}.
+ * A user's ETag names its version and, for the binary encodings, the representation, e.g. {@code "3-cbor"}.
  */
 @Tag(name = "User Management", description = "Operations related to managing users.")
 @RestController
 @RequestMapping("/api/v1/users")
 public class UserController {
+    /**
+     * Encodings of single-user responses with their ETag suffix, in order of preference.
+     */
+    private static final Map<MediaType, String> USER_REPRESENTATIONS = representations();
+
     private final UserService userService;
 
     /**
@@ -36,73 +58,241 @@ public class UserController {
 
     /**
      * Creates a new user based on provided DTO and returns the response with status code 201 (CREATED).
+     * In write-behind mode the user is only queued and the response is 202 (ACCEPTED), with the location
+     * of the creation's status.
      *
      * @param requestDTO Validated input DTO containing necessary fields for creating a user.
-     * @return Created user's details in form of a {@link UserResponseDTO}.
+     * @return Created user's details in form of a {@link UserResponseDTO}, or the pending
+     *         {@link UserCreationStatusDTO} in write-behind mode.
      */
     @Operation(
             summary = "Create a new user.",
             responses = {
-                @ApiResponse(responseCode = "201", description = "User was successfully created."),
-                @ApiResponse(responseCode = "400", description = "Bad Request due to validation errors.", content = @Content(schema = @Schema(implementation = Exception.class)))
+                @ApiResponse(responseCode = "201", description = "User was successfully created.", content = @Content(schema = @Schema(implementation = UserResponseDTO.class))),
+                @ApiResponse(responseCode = "202", description = "User creation was queued (write-behind mode), see the Location header for its status.", content = @Content(schema = @Schema(implementation = UserCreationStatusDTO.class))),
+                @ApiResponse(responseCode = "400", description = "Bad Request due to validation errors.", content = @Content(schema = @Schema(implementation = Exception.class))),
+                @ApiResponse(responseCode = "409", description = "Email address is already taken or pending."),
+                @ApiResponse(responseCode = "503", description = "Too many pending creations, retry later.")
             })
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public UserResponseDTO createUser(@Valid @RequestBody UserRequestDTO requestDto) {
-        return userService.createUser(requestDto);
+    public ResponseEntity<Object> createUser(@Valid @RequestBody UserRequestDTO requestDto) {
+        if (userService.isWriteBehind()) {
+            UserCreationStatusDTO status = userService.submitUser(requestDto);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/users/pending/" + status.getTicket()))
+                    .body(status);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(userService.createUser(requestDto));
+    }
+
+    /**
+     * Retrieves the state of a user creation accepted in write-behind mode.
+     *
+     * @param ticket Ticket of the creation, as returned in the 202 response.
+     * @return The state of the creation; once created it carries the user's id.
+     */
+    @Operation(
+            summary = "Get the state of a queued user creation.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "State retrieved successfully.", content = @Content(schema = @Schema(implementation = UserCreationStatusDTO.class))),
+                @ApiResponse(responseCode = "404", description = "Unknown or expired ticket.")
+            })
+    @GetMapping("/pending/{ticket}")
+    @ResponseStatus(HttpStatus.OK)
+    public UserCreationStatusDTO getCreationStatus(@PathVariable String ticket) {
+        return userService.getCreationStatus(ticket)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown user creation " + ticket));
+    }
+
+    /**
+     * Creates many users in one request using batched inserts.
+     *
+     * @param requestDtos Validated input DTOs of the users to create.
+     * @return Per-item results, in the same order as the request.
+     */
+    @Operation(
+            summary = "Create many users at once.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results.", content = @Content(array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @Schema(implementation = UserBatchResultDTO.class)))),
+                @ApiResponse(responseCode = "400", description = "Bad Request due to validation errors.")
+            })
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<UserBatchResultDTO> createUsers(@RequestBody List<@Valid UserRequestDTO> requestDtos) {
+        return userService.createUsers(requestDtos);
     }
 
     /**
      * Retrieves an existing user by their id.
+     * The response carries the user's version and encoding as ETag; a matching If-None-Match header yields 304 without a body.
      *
-     * @param id Unique identifier of the user.
+     * @param id      Unique identifier of the user.
+     * @param request Current request, used for evaluating If-None-Match.
      * @return The requested user's information as a {@link UserResponseDTO}, or throws 404 if no such user exists.
      */
     @Operation(
             summary = "Get user by its id.",
             responses = {
                 @ApiResponse(responseCode = "200", description = "User retrieved successfully.", content = @Content(schema = @Schema(implementation = UserResponseDTO.class))),
+                @ApiResponse(responseCode = "304", description = "User has not changed since the version given in If-None-Match."),
                 @ApiResponse(responseCode = "404", description = "No user found with given id.")
             })
     @GetMapping("/{id}")
+    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable Long id, WebRequest request) {
+        UserResponseDTO user = userService.getUserById(id);
+        MediaType representation = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        if (representation == null) {
+            return ResponseEntity.ok().body(user);
+        }
+        String etag = toEtag(user.getVersion(), representation);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).contentType(representation).body(user);
+    }
+
+    /**
+     * Retrieves an existing user by their email address, ignoring case.
+     *
+     * @param email Email address of the user.
+     * @return The requested user's information as a {@link UserResponseDTO}, or throws 404 if no such user exists.
+     */
+    @Operation(
+            summary = "Get user by its email address.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "User retrieved successfully.", content = @Content(schema = @Schema(implementation = UserResponseDTO.class))),
+                @ApiResponse(responseCode = "404", description = "No user found with given email address.")
+            })
+    @GetMapping("/by-email")
+    @ResponseStatus(HttpStatus.OK)
+    public UserResponseDTO getUserByEmail(@RequestParam String email) {
+        return userService.getUserByEmail(email);
+    }
+
+    /**
+     * Retrieves many users by id with a single round trip, e.g. {@code GET /api/v1/users?ids=3,1,2}.
+     *
+     * @param ids Identifiers of the users, at most {@link UserService#MAX_LOOKUP_IDS}.
+     * @return Found users in request order and the ids that do not exist.
+     */
+    @Operation(
+            summary = "Get many users by their ids.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Users looked up, see missingIds for unknown ids.", content = @Content(schema = @Schema(implementation = UserLookupDTO.class))),
+                @ApiResponse(responseCode = "400", description = "Too many ids.")
+            })
+    @GetMapping(params = "ids")
+    @ResponseStatus(HttpStatus.OK)
+    public UserLookupDTO getUsersByIds(@RequestParam List<Long> ids) {
+        return lookup(ids);
+    }
+
+    /**
+     * Retrieves many users by id like {@link #getUsersByIds(List)}, for id lists too long for a query string.
+     *
+     * @param ids Identifiers of the users, at most {@link UserService#MAX_LOOKUP_IDS}.
+     * @return Found users in request order and the ids that do not exist.
+     */
+    @Operation(
+            summary = "Get many users by ids passed in the request body.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Users looked up, see missingIds for unknown ids.", content = @Content(schema = @Schema(implementation = UserLookupDTO.class))),
+                @ApiResponse(responseCode = "400", description = "Too many ids.")
+            })
+    @PostMapping("/lookup")
     @ResponseStatus(HttpStatus.OK)
-    public UserResponseDTO getUserById(@PathVariable Long id) {
-        return userService.getUserById(id);
+    public UserLookupDTO lookupUsers(@RequestBody List<Long> ids) {
+        return lookup(ids);
     }
 
     /**
-     * Fetches all registered users from the system.
+     * Fetches registered users page by page using keyset pagination.
      *
-     * @return A list of all users present in the database.
+     * @param cursor Id of the last user from the previous page, omitted for the first page.
+     * @param limit  Maximum number of users on the page.
+     * @return One page of users and the cursor for the next page.
      */
     @Operation(
-            summary = "Get all users.",
+            summary = "Get users page by page.",
             responses = {
-                @ApiResponse(responseCode = "200", description = "List of users returned successfully.", content = @Content(array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @Schema(implementation = User.class))))
+                @ApiResponse(responseCode = "200", description = "Page of users returned successfully.", content = @Content(schema = @Schema(implementation = UserPageDTO.class)))
             })
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public UserPageDTO getAllUsers(@RequestParam(required = false) Long cursor,
+                                   @RequestParam(required = false) Integer limit) {
+        return userService.getUsersPage(cursor, limit);
+    }
+
+    /**
+     * Searches users by name prefix, email, age range and creation window, page by page using keyset pagination.
+     *
+     * @param criteria Optional filters; only the ones that are set are applied.
+     * @param cursor   Id of the last user from the previous page, omitted for the first page.
+     * @param limit    Maximum number of users on the page.
+     * @return One page of matching users and the cursor for the next page.
+     */
+    @Operation(
+            summary = "Search users by name prefix, email, age range and creation window.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Page of matching users returned successfully.", content = @Content(schema = @Schema(implementation = UserPageDTO.class)))
+            })
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public UserPageDTO searchUsers(@ModelAttribute UserSearchCriteriaDTO criteria,
+                                   @RequestParam(required = false) Long cursor,
+                                   @RequestParam(required = false) Integer limit) {
+        return userService.searchUsers(criteria, cursor, limit);
+    }
+
+    /**
+     * Returns the users inserted, updated or deleted since a watermark, for replicas that sync incrementally.
+     *
+     * @param since Watermark returned by the previous call, omitted for the first sync.
+     * @param limit Maximum number of changes in the response.
+     * @return Changes in the order they happened, and the watermark to pass next time.
+     */
+    @Operation(
+            summary = "Get users changed since a watermark.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Changes returned successfully.", content = @Content(schema = @Schema(implementation = UserChangesDTO.class))),
+                @ApiResponse(responseCode = "400", description = "The watermark was not issued by this service.")
+            })
+    @GetMapping("/changes")
+    @ResponseStatus(HttpStatus.OK)
+    public UserChangesDTO getChanges(@RequestParam(required = false) String since,
+                                     @RequestParam(required = false) Integer limit) {
+        return userService.getChanges(since, limit);
     }
 
     /**
      * Updates an existing user using the specified id and valid DTO payload.
+     * With an If-Match header the update only succeeds if the user still has that version (ETag).
      *
      * @param id       Identifier of the user to be updated.
      * @param requestDTO New values for updating the user record.
-     * @return Updated user's information wrapped in a {@link UserResponseDTO}.
+     * @param ifMatch  Optional ETag the client has last seen.
+     * @param accept   Accept header, selecting the encoding of the response and its ETag.
+     * @return Updated user's information wrapped in a {@link UserResponseDTO}, with the new ETag for conditional updates.
      */
     @Operation(
             summary = "Update an existing user by providing its id and new data.",
             responses = {
                 @ApiResponse(responseCode = "200", description = "User updated successfully.", content = @Content(schema = @Schema(implementation = UserResponseDTO.class))),
-                @ApiResponse(responseCode = "404", description = "No user found with given id.")
+                @ApiResponse(responseCode = "404", description = "No user found with given id."),
+                @ApiResponse(responseCode = "412", description = "User was changed since the version given in If-Match.")
             })
     @PutMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public UserResponseDTO updateUser(@PathVariable Long id, @Valid @RequestBody UserRequestDTO requestDto) {
-        return userService.updateUser(id, requestDto);
+    public ResponseEntity<UserResponseDTO> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequestDTO requestDto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        UserResponseDTO user = userService.updateUser(id, requestDto, fromEtag(ifMatch));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        MediaType representation = negotiate(accept);
+        if (user.getVersion() != null && representation != null) {
+            response.eTag(toEtag(user.getVersion(), representation)).contentType(representation);
+        }
+        return response.body(user);
     }
 
     /**
@@ -121,4 +311,95 @@ public class UserController {
     public void deleteUser(@PathVariable Long id) {
         userService.deleteUser(id);
     }
+
+    /**
+     * Delegates a multi-get to the service after checking the number of ids.
+     *
+     * @throws ResponseStatusException with 400 if more than {@link UserService#MAX_LOOKUP_IDS} ids are given
+     */
+    private UserLookupDTO lookup(List<Long> ids) {
+        if (ids.size() > UserService.MAX_LOOKUP_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + UserService.MAX_LOOKUP_IDS + " ids per request");
+        }
+        return userService.getUsersByIds(ids);
+    }
+
+    private static Map<MediaType, String> representations() {
+        Map<MediaType, String> representations = new LinkedHashMap<>();
+        representations.put(MediaType.APPLICATION_JSON, "");
+        representations.put(MediaType.APPLICATION_CBOR, "-cbor");
+        representations.put(new MediaType("application", "x-jackson-smile"), "-smile");
+        return representations;
+    }
+
+    /**
+     * Picks the encoding of a single-user response from an Accept header: the one with the highest quality,
+     * taken from the most specific media range that includes it, and JSON on ties.
+     * The result is set as the response's content type so that the ETag always describes the body sent.
+     *
+     * @return the encoding, or null if the header accepts none of them (Spring MVC then answers 406)
+     */
+    static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> ranges;
+        try {
+            ranges = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType best = null;
+        double bestQuality = 0;
+        for (MediaType representation : USER_REPRESENTATIONS.keySet()) {
+            MediaType match = null;
+            for (MediaType range : ranges) {
+                if (range.includes(representation) && (match == null || specificity(range) > specificity(match))) {
+                    match = range;
+                }
+            }
+            if (match != null && match.getQualityValue() > bestQuality) {
+                best = representation;
+                bestQuality = match.getQualityValue();
+            }
+        }
+        return best;
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    /**
+     * Formats a user version as a strong ETag of the given encoding; JSON keeps the bare version.
+     */
+    private static String toEtag(Long version, MediaType representation) {
+        return "\"" + version + USER_REPRESENTATIONS.get(representation) + "\"";
+    }
+
+    /**
+     * Parses the version out of an If-Match header value; the encoding suffix, if any, is ignored
+     * because every encoding of a version carries the same user.
+     *
+     * @return the version, or null if the header is absent or {@code *}
+     * @throws ResponseStatusException with 412 if the value is not a strong ETag issued by this controller
+     */
+    private static Long fromEtag(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        try {
+            String tag = value.substring(1, value.length() - 1);
+            for (String suffix : USER_REPRESENTATIONS.values()) {
+                if (!suffix.isEmpty() && tag.endsWith(suffix)) {
+                    tag = tag.substring(0, tag.length() - suffix.length());
+                }
+            }
+            return Long.valueOf(tag);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Unknown ETag: " + ifMatch);
+        }
+    }
 }
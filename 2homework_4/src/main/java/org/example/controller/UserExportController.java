@@ -0,0 +1,54 @@
+package org.example.controller;
+
+import org.example.service.UserExportService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Controller for bulk export of Users to downstream systems.
+ */
+@Tag(name = "User Export", description = "Bulk export of users.")
+@RestController
+@RequestMapping("/api/v1/users")
+public class UserExportController {
+
+    /**
+     * Media type of newline-delimited JSON.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final UserExportService userExportService;
+
+    /**
+     * Constructor injection of the {@link UserExportService}.
+     *
+     * @param userExportService Service layer implementation for user export.
+     */
+    public UserExportController(UserExportService userExportService) {
+        this.userExportService = userExportService;
+    }
+
+    /**
+     * Streams all users as newline-delimited JSON, one {@code UserResponseDTO} per line.
+     *
+     * @return Streaming response body written directly to the response output stream.
+     */
+    @Operation(
+            summary = "Export all users as NDJSON.",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Users streamed successfully.")
+            })
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = userExportService::exportUsers;
+        return ResponseEntity.status(HttpStatus.OK).body(body);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.dao;
+
+import org.hibernate.HibernateException;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+
+import java.util.Map;
+
+/**
+ * Holder of the single Hibernate session factory shared by all standalone {@link UserDAOImpl} instances.
+ * Connections come from a HikariCP pool. Pool settings default to the values below and can be
+ * overridden with system properties of the same name, e.g. {@code -Dhibernate.hikari.maximumPoolSize=20};
+ * driver options such as statement caching are passed the same way, e.g.
+ * {@code -Dhibernate.hikari.dataSource.preparedStatementCacheQueries=256} for PostgreSQL.
+ */
+public final class SessionFactoryProvider {
+
+    /**
+     * Default connection pool settings.
+     */
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider",
+            "hibernate.hikari.maximumPoolSize", "10",
+            "hibernate.hikari.minimumIdle", "2",
+            "hibernate.hikari.connectionTimeout", "5000",
+            "hibernate.hikari.poolName", "user-dao");
+
+    private SessionFactoryProvider() {
+    }
+
+    /**
+     * Returns the shared session factory, building it on first use.
+     *
+     * @return the shared session factory
+     * @throws HibernateException if there's an issue while initializing Hibernate session factory.
+     */
+    public static SessionFactory getSessionFactory() {
+        return Holder.SESSION_FACTORY;
+    }
+
+    /**
+     * Lazily initialized holder, so the factory is built once and only when first needed.
+     */
+    private static final class Holder {
+        private static final SessionFactory SESSION_FACTORY = build();
+    }
+
+    private static SessionFactory build() {
+        StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder().configure();
+        DEFAULTS.forEach((key, value) -> builder.applySetting(key, System.getProperty(key, value)));
+        final StandardServiceRegistry registry = builder.build();
+        try {
+            SessionFactory sessionFactory = new MetadataSources(registry)
+                    .buildMetadata().buildSessionFactory();
+            Runtime.getRuntime().addShutdownHook(new Thread(sessionFactory::close, "user-dao-shutdown"));
+            return sessionFactory;
+        } catch (Exception e) {
+            StandardServiceRegistryBuilder.destroy(registry);
+            throw new HibernateException("Hibernate's initialization failed!", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.dao;
+
+import org.example.entity.User;
+
+import java.util.List;
+
+/**
+ * Writer inserting users in batches through one long-lived session, with one transaction per batch.
+ * Obtained from {@link UserDAO#openBatchWriter()} and closed when the bulk load is done.
+ */
+public interface UserBatchWriter extends AutoCloseable {
+
+    /**
+     * Inserts a batch of users in one transaction.
+     * Users whose email already exists, in the storage or earlier in the same batch, are skipped and returned.
+     *
+     * @param users the users to insert
+     * @return the skipped users with a duplicate email
+     * @throws Exception if the batch could not be written; it is rolled back, the writer stays usable
+     *                   and the users can be written again
+     */
+    List<User> write(List<User> users) throws Exception;
+
+    /**
+     * Closes the underlying session.
+     */
+    @Override
+    void close();
+}
@@ -3,6 +3,7 @@ package org.example.dao;
 import org.example.entity.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface defining basic CRUD operations for working with {@link User} entities.
@@ -26,6 +27,54 @@ public interface UserDAO {
      */
     List<User> getAllUsers() throws Exception;
 
+    /**
+     * Retrieves one keyset-paginated page of users ordered by id.
+     *
+     * @param afterId the last id seen by the caller (exclusive), or null to start from the beginning
+     * @param limit   maximum number of users to return
+     * @return a list of at most {@code limit} users with an id greater than {@code afterId}
+     * @throws Exception if an error occurs during retrieval process
+     */
+    List<User> getUsers(Long afterId, int limit) throws Exception;
+
+    /**
+     * Retrieves many users by their identifiers, loading them in chunks of IN queries.
+     *
+     * @param ids the unique identifiers of the users to retrieve
+     * @return a list with one element per requested id, in request order; ids without a user yield {@code null}
+     * @throws Exception if an error occurs during retrieval process
+     */
+    List<User> getUsersByIds(List<Long> ids) throws Exception;
+
+    /**
+     * Passes every user in the storage to the given consumer, ordered by id, without loading them all at once.
+     *
+     * @param consumer callback invoked for each user
+     * @return number of processed users
+     * @throws Exception if an error occurs during retrieval process
+     */
+    long forEachUser(Consumer<User> consumer) throws Exception;
+
+    /**
+     * Retrieves the smallest and the largest user id, e.g. for splitting the id space into ranges.
+     *
+     * @return a two-element array {@code {min, max}}, or null if there are no users
+     * @throws Exception if an error occurs during retrieval process
+     */
+    long[] getIdRange() throws Exception;
+
+    /**
+     * Passes the users of an id range to the given consumer, ordered by id, without loading them all at once.
+     * Independent ranges can be processed concurrently.
+     *
+     * @param fromId   the smallest id to include
+     * @param toId     the first id after the range (exclusive)
+     * @param consumer callback invoked for each user
+     * @return number of processed users
+     * @throws Exception if an error occurs during retrieval process
+     */
+    long forEachUser(long fromId, long toId, Consumer<User> consumer) throws Exception;
+
     /**
      * Saves a new user to the storage.
      *
@@ -34,6 +83,14 @@ public interface UserDAO {
      */
     void saveUser(User user) throws Exception;
 
+    /**
+     * Opens a writer for inserting many users in batches through one session, e.g. for bulk imports.
+     *
+     * @return a writer which the caller must close
+     * @throws Exception if an error occurs while opening the session
+     */
+    UserBatchWriter openBatchWriter() throws Exception;
+
     /**
      * Updates an existing user in the storage.
      *
@@ -49,4 +106,21 @@ public interface UserDAO {
      * @throws Exception if an error occurs during deletion process
      */
     void deleteUser(Long id) throws Exception;
+
+    /**
+     * Lower-cases the email addresses stored before emails were normalized.
+     * Addresses that differ from another user's only in case are skipped, as lowering them would break uniqueness.
+     *
+     * @return number of updated users
+     * @throws Exception if an error occurs during update process
+     */
+    int lowerCaseEmails() throws Exception;
+
+    /**
+     * Counts the users whose email address is not stored in lower case.
+     *
+     * @return number of such users
+     * @throws Exception if an error occurs during retrieval process
+     */
+    long countMixedCaseEmails() throws Exception;
 }
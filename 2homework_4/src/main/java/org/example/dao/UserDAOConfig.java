@@ -0,0 +1,27 @@
+package org.example.dao;
+
+import org.hibernate.SessionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Configuration class exposing {@link UserDAOImpl} as a Spring bean.
+ * The DAO reuses the session factory behind JPA, so it shares the {@code DataSource} pool
+ * and second-level cache with {@link org.example.entity.UserRepository}.
+ */
+@Configuration
+public class UserDAOConfig {
+
+    /**
+     * Creates the DAO bean on top of the application's JPA session factory.
+     *
+     * @param entityManagerFactory the JPA entity manager factory backed by Hibernate
+     * @return DAO sharing the application's connection pool
+     */
+    @Bean
+    public UserDAO userDAO(EntityManagerFactory entityManagerFactory) {
+        return new UserDAOImpl(entityManagerFactory.unwrap(SessionFactory.class));
+    }
+}
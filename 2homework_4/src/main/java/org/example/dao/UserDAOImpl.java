@@ -1,38 +1,63 @@
 package org.example.dao;
 
+import io.micrometer.core.annotation.Timed;
+import org.example.cache.UserCacheEviction;
 import org.example.entity.User;
+import org.example.entity.UserTombstone;
+import org.example.metrics.MetricsConfig;
 import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
-import org.hibernate.boot.MetadataSources;
-import org.hibernate.boot.registry.StandardServiceRegistry;
-import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.MutationQuery;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Implementation of UserDAO interface utilizing Hibernate ORM for performing CRUD operations on User entities.
+ * Method latencies are timed when the DAO runs as a Spring bean (see {@link UserDAOConfig}); the standalone
+ * instances of the console application are not proxied and so not timed.
  */
+@Timed(value = MetricsConfig.DAO_TIMER, histogram = true)
 public class UserDAOImpl implements UserDAO {
+    /**
+     * Number of rows fetched per round trip and processed between session clears when scrolling.
+     */
+    private static final int SCROLL_FETCH_SIZE = 500;
+
+    /**
+     * Maximum number of ids bound to one IN query when loading users by ids.
+     */
+    private static final int MULTI_LOAD_BATCH_SIZE = 500;
+
     private final SessionFactory sessionFactory;
 
     /**
-     * Constructs a new instance of UserDAOImpl and initializes the Hibernate session factory.
+     * Constructs a new instance of UserDAOImpl backed by the shared, pooled session factory.
      * 
      * @throws HibernateException if there's an issue while initializing Hibernate session factory.
      */
     public UserDAOImpl() {
-        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
-                .configure()
-                .build();
-        try {
-            sessionFactory = new MetadataSources(registry)
-                    .buildMetadata().buildSessionFactory();
-        } catch (Exception e) {
-            StandardServiceRegistryBuilder.destroy(registry);
-            throw new HibernateException("Hibernate's initialization failed!", e);
-        }
+        this(SessionFactoryProvider.getSessionFactory());
+    }
+
+    /**
+     * Constructs a new instance of UserDAOImpl on top of an existing session factory,
+     * e.g. the one behind the JPA {@code EntityManagerFactory}.
+     *
+     * @param sessionFactory the session factory to open sessions from.
+     */
+    public UserDAOImpl(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
     }
 
     /**
@@ -66,6 +91,127 @@ public class UserDAOImpl implements UserDAO {
         }
     }
 
+    /**
+     * Get one keyset page of users from the db.
+     *
+     * @param afterId the last id seen by the caller, or null to start from the beginning.
+     * @param limit   maximum number of users to return.
+     * @return a list of User objects ordered by id.
+     * @throws Exception if problems arise while fetching users from the db.
+     */
+    @Override
+    public List<User> getUsers(Long afterId, int limit) throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("FROM User u WHERE u.id > :afterId ORDER BY u.id", User.class)
+                    .setParameter("afterId", afterId == null ? 0L : afterId)
+                    .setMaxResults(limit)
+                    .list();
+        } catch (Exception e) {
+            throw new Exception("Problems with database connection!", e);
+        }
+    }
+
+    /**
+     * Get many users from the db by their ids.
+     * Hibernate's multi-load issues one IN query per {@value #MULTI_LOAD_BATCH_SIZE} ids
+     * and skips ids already present in the second-level cache.
+     *
+     * @param ids the unique identifiers of the users to fetch.
+     * @return a list of User objects in request order, with null for ids that do not exist.
+     * @throws Exception if problems arise while fetching users from the db.
+     */
+    @Override
+    public List<User> getUsersByIds(List<Long> ids) throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            return session.byMultipleIds(User.class)
+                    .withBatchSize(MULTI_LOAD_BATCH_SIZE)
+                    .multiLoad(ids);
+        } catch (Exception e) {
+            throw new Exception("Problems with database connection!", e);
+        }
+    }
+
+    /**
+     * Scrolls through all users in the db with a forward-only cursor.
+     * The session is cleared periodically so that processed users can be garbage collected.
+     *
+     * @param consumer callback invoked for each user.
+     * @return number of processed users.
+     * @throws Exception if problems arise while fetching users from the db.
+     */
+    @Override
+    public long forEachUser(Consumer<User> consumer) throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            long count = 0;
+            try (ScrollableResults<User> results = session.createQuery("FROM User u ORDER BY u.id", User.class)
+                    .setFetchSize(SCROLL_FETCH_SIZE)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(results.get());
+                    if (++count % SCROLL_FETCH_SIZE == 0) {
+                        session.clear();
+                    }
+                }
+            }
+            transaction.commit();
+            return count;
+        } catch (Exception e) {
+            throw new Exception("Problems with database connection!", e);
+        }
+    }
+
+    /**
+     * Get the smallest and largest user id from the db.
+     *
+     * @return {@code {min, max}}, or null if the table is empty.
+     * @throws Exception if problems arise while querying the db.
+     */
+    @Override
+    public long[] getIdRange() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            Object[] range = session.createQuery("SELECT MIN(u.id), MAX(u.id) FROM User u", Object[].class)
+                    .getSingleResult();
+            return range[0] == null ? null : new long[]{(Long) range[0], (Long) range[1]};
+        } catch (Exception e) {
+            throw new Exception("Problems with database connection!", e);
+        }
+    }
+
+    /**
+     * Scrolls through the users of an id range with a forward-only cursor.
+     * Uses a stateless session, which keeps no persistence context, so it is read-only and its memory use is constant.
+     *
+     * @param fromId   the smallest id to include.
+     * @param toId     the first id after the range (exclusive).
+     * @param consumer callback invoked for each user.
+     * @return number of processed users.
+     * @throws Exception if problems arise while fetching users from the db.
+     */
+    @Override
+    public long forEachUser(long fromId, long toId, Consumer<User> consumer) throws Exception {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            long count = 0;
+            try (ScrollableResults<User> results = session
+                    .createQuery("FROM User u WHERE u.id >= :fromId AND u.id < :toId ORDER BY u.id", User.class)
+                    .setParameter("fromId", fromId)
+                    .setParameter("toId", toId)
+                    .setFetchSize(SCROLL_FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(results.get());
+                    count++;
+                }
+            }
+            transaction.commit();
+            return count;
+        } catch (Exception e) {
+            throw new Exception("Problems with database connection!", e);
+        }
+    }
+
     /**
      * Saves a new user to the db.
      *
@@ -84,34 +230,66 @@ public class UserDAOImpl implements UserDAO {
     }
 
     /**
-     * Updates an existing user in the db.
+     * Opens a batch writer on a session of its own.
+     *
+     * @return a writer which the caller must close.
+     * @throws Exception if problems arise while opening the session.
+     */
+    @Override
+    public UserBatchWriter openBatchWriter() throws Exception {
+        try {
+            return new HibernateBatchWriter(sessionFactory);
+        } catch (Exception e) {
+            throw new Exception("Problems with database connection!", e);
+        }
+    }
+
+    /**
+     * Updates an existing user in the db with a single UPDATE statement.
+     * If the given user carries a version, the update only succeeds if the stored version is still the same.
+     * Only this user is evicted from the second-level cache, see {@link UserCacheEviction}.
      *
      * @param user the User object with updated attributes.
-     * @throws Exception if the user couldn't be found or other problems occurred.
+     * @throws Exception if the user couldn't be found, was changed concurrently or other problems occurred.
      */
     @Override
     public void updateUser(User user) throws Exception {
         try (Session session = sessionFactory.openSession()) {
             Transaction transaction = session.beginTransaction();
-            User existingUser = session.get(User.class, user.getId());
+            String sql = "UPDATE users SET name = :name, email = :email, age = :age, updated_at = :updatedAt, "
+                    + "version = version + 1 WHERE id = :id";
+            if (user.getVersion() != null) {
+                sql += " AND version = :version";
+            }
 
-            if (existingUser == null) {
-                throw new Exception("User is not found!");
+            MutationQuery query = session.createNativeMutationQuery(sql)
+                    .setHint(HibernateHints.HINT_NATIVE_SPACES, User.SINGLE_ROW_QUERY_SPACE)
+                    .setParameter("name", user.getName())
+                    .setParameter("email", user.getEmail())
+                    .setParameter("age", user.getAge())
+                    .setParameter("updatedAt", Instant.now())
+                    .setParameter("id", user.getId());
+            if (user.getVersion() != null) {
+                query.setParameter("version", user.getVersion());
+            }
+
+            if (query.executeUpdate() == 0) {
+                throw new Exception("User is not found or was changed concurrently!");
             }
 
-            existingUser.setName(user.getName());
-            existingUser.setEmail(user.getEmail());
-            existingUser.setAge(user.getAge());
-            existingUser.setCreatedAt(user.getCreatedAt());
-            session.update(existingUser);
             transaction.commit();
+            UserCacheEviction.evict(sessionFactory, user.getId());
+            if (user.getVersion() != null) {
+                user.setVersion(user.getVersion() + 1);
+            }
         } catch (Exception e) {
             throw new Exception("Problems with updating user!", e);
         }
     }
 
     /**
-     * Deletes a user from the db by its id.
+     * Deletes a user from the db by its id with a single DELETE statement and records a tombstone for delta sync.
+     * Only this user is evicted from the second-level cache, see {@link UserCacheEviction}.
      *
      * @param id the unique identifier of the user to delete.
      * @throws Exception if the user couldn't be found or other problems occurred.
@@ -120,16 +298,120 @@ public class UserDAOImpl implements UserDAO {
     public void deleteUser(Long id) throws Exception {
         try (Session session = sessionFactory.openSession()) {
             Transaction transaction = session.beginTransaction();
-            User user = session.get(User.class, id);
+            int deleted = session.createNativeMutationQuery("DELETE FROM users WHERE id = :id")
+                    .setHint(HibernateHints.HINT_NATIVE_SPACES, User.SINGLE_ROW_QUERY_SPACE)
+                    .setParameter("id", id)
+                    .executeUpdate();
 
-            if (user == null) {
+            if (deleted == 0) {
                 throw new Exception("User is not found!");
             }
+            session.persist(new UserTombstone(id, Instant.now()));
 
-            session.delete(user);
             transaction.commit();
+            UserCacheEviction.evict(sessionFactory, id);
         } catch (Exception e) {
             throw new Exception("Problems with deleting user!", e);
         }
     }
+
+    /**
+     * Lower-cases the mixed-case email addresses with a single bulk UPDATE.
+     * Hibernate invalidates the cached users of a bulk statement on its own.
+     *
+     * @return number of updated users.
+     * @throws Exception if problems arise while updating the users.
+     */
+    @Override
+    public int lowerCaseEmails() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            int migrated = session.createMutationQuery("UPDATE User u SET u.email = LOWER(u.email), "
+                            + "u.updatedAt = :updatedAt, u.version = u.version + 1 "
+                            + "WHERE u.email <> LOWER(u.email) "
+                            + "AND NOT EXISTS (SELECT o.id FROM User o WHERE o.id <> u.id "
+                            + "AND LOWER(o.email) = LOWER(u.email))")
+                    .setParameter("updatedAt", Instant.now())
+                    .executeUpdate();
+            transaction.commit();
+            return migrated;
+        } catch (Exception e) {
+            throw new Exception("Problems with updating users!", e);
+        }
+    }
+
+    /**
+     * Counts the users whose email address is not stored in lower case.
+     *
+     * @return number of such users.
+     * @throws Exception if problems arise while fetching users from the db.
+     */
+    @Override
+    public long countMixedCaseEmails() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("SELECT COUNT(u) FROM User u WHERE u.email <> LOWER(u.email)", Long.class)
+                    .getSingleResult();
+        } catch (Exception e) {
+            throw new Exception("Problems with database connection!", e);
+        }
+    }
+
+    /**
+     * Batch writer keeping one session open across batches.
+     * The session is cleared after every batch, so its persistence context does not grow with the number of rows,
+     * and inserts are sent as JDBC batches of {@code hibernate.jdbc.batch_size}.
+     */
+    private static final class HibernateBatchWriter implements UserBatchWriter {
+
+        private final SessionFactory sessionFactory;
+        private Session session;
+
+        HibernateBatchWriter(SessionFactory sessionFactory) {
+            this.sessionFactory = sessionFactory;
+            this.session = sessionFactory.openSession();
+        }
+
+        @Override
+        public List<User> write(List<User> users) throws Exception {
+            Transaction transaction = session.beginTransaction();
+            try {
+                Set<String> emails = new HashSet<>();
+                users.forEach(user -> emails.add(user.getEmail()));
+                Set<String> existing = new HashSet<>(session
+                        .createQuery("SELECT u.email FROM User u WHERE u.email IN :emails", String.class)
+                        .setParameterList("emails", emails)
+                        .list());
+
+                List<User> duplicates = new ArrayList<>();
+                for (User user : users) {
+                    if (existing.add(user.getEmail())) {
+                        session.persist(user);
+                    } else {
+                        duplicates.add(user);
+                    }
+                }
+                transaction.commit();
+                session.clear();
+                return duplicates;
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                // a session is unusable after a failed flush, so continue with a fresh one
+                session.close();
+                session = sessionFactory.openSession();
+                // forget what the failed persist assigned, so the users can be written again
+                users.forEach(user -> {
+                    user.setId(null);
+                    user.setVersion(null);
+                });
+                throw new Exception("Problems with adding users!", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            session.close();
+        }
+    }
 }
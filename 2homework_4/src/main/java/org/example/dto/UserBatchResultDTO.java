@@ -0,0 +1,55 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Response Data Transfer Object (DTO) describing the outcome of a single item of a bulk user creation request.
+ */
+@Getter
+@Setter
+public class UserBatchResultDTO {
+
+    /**
+     * Possible outcomes of creating a single user.
+     */
+    public enum Status {
+        CREATED,
+        DUPLICATE_EMAIL
+    }
+
+    /**
+     * Position of the item in the request list.
+     */
+    private int index;
+
+    /**
+     * Outcome of the item.
+     */
+    private Status status;
+
+    /**
+     * Unique identifier of the created user, or null if the item was rejected.
+     */
+    private Long id;
+
+    /**
+     * Email address of the item.
+     */
+    private String email;
+
+    /**
+     * Constructor for instantiating a new UserBatchResultDTO object.
+     *
+     * @param index  Position of the item in the request list.
+     * @param status Outcome of the item.
+     * @param id     Identifier of the created user, or null.
+     * @param email  Email address of the item.
+     */
+    public UserBatchResultDTO(int index, Status status, Long id, String email) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.email = email;
+    }
+}
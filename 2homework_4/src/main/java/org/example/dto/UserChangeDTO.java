@@ -0,0 +1,84 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Response Data Transfer Object (DTO) describing one change of a user for delta sync:
+ * either its current state after an insert or update, or its deletion.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserChangeDTO {
+
+    /**
+     * Kind of a change.
+     */
+    public enum Type {
+        /**
+         * The user was created or updated; the entry carries its current state.
+         */
+        UPSERT,
+        /**
+         * The user was deleted; the entry carries only its id.
+         */
+        DELETE
+    }
+
+    /**
+     * Kind of the change.
+     */
+    private Type type;
+
+    /**
+     * Unique identifier of the changed user.
+     */
+    private Long id;
+
+    /**
+     * Full name of the user, null for deletions.
+     */
+    private String name;
+
+    /**
+     * Email address of the user, null for deletions.
+     */
+    private String email;
+
+    /**
+     * Instant (UTC) of the change.
+     */
+    private Instant changedAt;
+
+    /**
+     * Constructor for an insert or update, used by JPQL constructor projections.
+     *
+     * @param id        Unique identifier of the user.
+     * @param name      Full name of the user.
+     * @param email     Email address of the user.
+     * @param changedAt Instant of the last update.
+     */
+    public UserChangeDTO(Long id, String name, String email, Instant changedAt) {
+        this.type = Type.UPSERT;
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.changedAt = changedAt;
+    }
+
+    /**
+     * Constructor for a deletion, used by JPQL constructor projections.
+     *
+     * @param id        Unique identifier the deleted user had.
+     * @param changedAt Instant of the deletion.
+     */
+    public UserChangeDTO(Long id, Instant changedAt) {
+        this.type = Type.DELETE;
+        this.id = id;
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Response Data Transfer Object (DTO) carrying one page of user changes for delta sync.
+ * Clients apply the changes in order and pass {@code watermark} back as the {@code since} parameter next time.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserChangesDTO {
+
+    /**
+     * Changes ordered by the time they happened.
+     */
+    private List<UserChangeDTO> changes;
+
+    /**
+     * Position after the last change of this page; unchanged if the page is empty.
+     */
+    private String watermark;
+
+    /**
+     * Whether more changes are available right away.
+     */
+    private boolean hasMore;
+
+    /**
+     * Constructor for instantiating a new UserChangesDTO object.
+     *
+     * @param changes   Changes of this page.
+     * @param watermark Position to continue from.
+     * @param hasMore   Whether another page is available.
+     */
+    public UserChangesDTO(List<UserChangeDTO> changes, String watermark, boolean hasMore) {
+        this.changes = changes;
+        this.watermark = watermark;
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Response Data Transfer Object (DTO) describing the state of a user creation accepted in write-behind mode.
+ */
+@Getter
+@Setter
+public class UserCreationStatusDTO {
+
+    /**
+     * Possible states of an accepted user creation.
+     */
+    public enum Status {
+        PENDING,
+        CREATED,
+        FAILED
+    }
+
+    /**
+     * Identifier of the accepted request, used to query its state.
+     */
+    private String ticket;
+
+    /**
+     * Current state of the request.
+     */
+    private Status status;
+
+    /**
+     * Unique identifier of the created user, or null unless the status is CREATED.
+     */
+    private Long id;
+
+    /**
+     * Email address of the user.
+     */
+    private String email;
+
+    /**
+     * Reason of the failure, or null unless the status is FAILED.
+     */
+    private String reason;
+
+    /**
+     * Constructor for instantiating a new UserCreationStatusDTO object.
+     *
+     * @param ticket Identifier of the accepted request.
+     * @param status Current state of the request.
+     * @param id     Identifier of the created user, or null.
+     * @param email  Email address of the user.
+     * @param reason Reason of the failure, or null.
+     */
+    public UserCreationStatusDTO(String ticket, Status status, Long id, String email, String reason) {
+        this.ticket = ticket;
+        this.status = status;
+        this.id = id;
+        this.email = email;
+        this.reason = reason;
+    }
+}
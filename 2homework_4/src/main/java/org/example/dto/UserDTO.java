@@ -3,10 +3,10 @@ package org.example.dto;
 import lombok.Getter;
 import lombok.Setter;
 
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.validation.constraints.Email;
-import javax.validation.constraints.NotBlank;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
 /**
@@ -59,7 +59,7 @@ public class UserDTO {
      * @param email Email address of the user.
      * @param age   Age of the user.
      */
-    UserDTO(String name, String email, Integer age) {
+    public UserDTO(String name, String email, Integer age) {
         this.name = name;
         this.email = email;
         this.age = age;
@@ -0,0 +1,37 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Response Data Transfer Object (DTO) of a multi-get: the users that were found and the ids that were not.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserLookupDTO {
+
+    /**
+     * Found users, in the order their ids were requested.
+     */
+    private List<UserResponseDTO> items;
+
+    /**
+     * Requested ids without a matching user, in request order.
+     */
+    private List<Long> missingIds;
+
+    /**
+     * Constructor for instantiating a new UserLookupDTO object.
+     *
+     * @param items      Found users.
+     * @param missingIds Ids that do not belong to any user.
+     */
+    public UserLookupDTO(List<UserResponseDTO> items, List<Long> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+}
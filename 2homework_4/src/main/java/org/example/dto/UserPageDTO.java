@@ -0,0 +1,38 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Response Data Transfer Object (DTO) carrying one keyset-paginated slice of users.
+ * Clients pass {@code nextCursor} back as the {@code cursor} parameter to fetch the following page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserPageDTO {
+
+    /**
+     * Users of the current page, ordered by id ascending.
+     */
+    private List<UserResponseDTO> items;
+
+    /**
+     * Id of the last user on this page, or null if there are no more pages.
+     */
+    private Long nextCursor;
+
+    /**
+     * Constructor for instantiating a new UserPageDTO object.
+     *
+     * @param items      Users of the current page.
+     * @param nextCursor Cursor for the next page, or null if this is the last one.
+     */
+    public UserPageDTO(List<UserResponseDTO> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
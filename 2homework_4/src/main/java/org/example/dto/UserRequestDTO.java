@@ -3,9 +3,12 @@ package org.example.dto;
 import lombok.Getter;
 import lombok.Setter;
 
-import javax.validation.constraints.Email;
-import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.Size;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 /**
  * Data transfer object (DTO) used for receiving requests related to user creation or modification.
@@ -30,5 +33,14 @@ public class UserRequestDTO {
     @NotBlank
     @Email(message = "Invalid email format")
     private String email;
+
+    /**
+     * Age of the user.
+     * Required, since every stored user has an age, and between 0 and 150.
+     */
+    @NotNull
+    @Min(0)
+    @Max(150)
+    private Integer age;
 }
 
@@ -1,6 +1,8 @@
 package org.example.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 /**
@@ -9,6 +11,7 @@ import lombok.Setter;
  */
 @Getter
 @Setter
+@NoArgsConstructor
 public class UserResponseDTO {
 
     /**
@@ -25,4 +28,26 @@ public class UserResponseDTO {
      * Email address of the user.
      */
     private String email;
+
+    /**
+     * Version of the user record, sent as the ETag header rather than in the body.
+     * Null if the version is not known.
+     */
+    @JsonIgnore
+    private Long version;
+
+    /**
+     * Constructor used by JPQL constructor projections, which select the DTO directly without loading entities.
+     *
+     * @param id      Unique identifier of the user.
+     * @param name    Full name of the user.
+     * @param email   Email address of the user.
+     * @param version Version of the user record.
+     */
+    public UserResponseDTO(Long id, String name, String email, Long version) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.version = version;
+    }
 }
@@ -0,0 +1,48 @@
+package org.example.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data transfer object (DTO) holding the optional filters of a user search.
+ * Filters that are not set are ignored; all set filters must match.
+ */
+@Getter
+@Setter
+public class UserSearchCriteriaDTO {
+
+    /**
+     * Case-sensitive prefix of the user's name.
+     */
+    private String namePrefix;
+
+    /**
+     * Email address of the user, matched case-insensitively.
+     */
+    private String email;
+
+    /**
+     * Minimum age of the user (inclusive).
+     */
+    private Integer minAge;
+
+    /**
+     * Maximum age of the user (inclusive).
+     */
+    private Integer maxAge;
+
+    /**
+     * Earliest creation date and time of the user (inclusive).
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    /**
+     * Latest creation date and time of the user (exclusive).
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
@@ -1,25 +1,63 @@
 package org.example.entity;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
 
 /**
  * Entity class representing a user in the system.
  * Maps directly to the "users" table in the database.
+ * Eligible for the second-level cache region {@value #CACHE_REGION} when the "cache" profile is active.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @Getter
 @Setter
-@Table(name = "users")
+@NoArgsConstructor
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_name", columnList = "name"),
+        @Index(name = "idx_users_age", columnList = "age"),
+        @Index(name = "idx_users_created_at", columnList = "created_at"),
+        @Index(name = "idx_users_updated_at", columnList = "updated_at, id")
+}, uniqueConstraints = @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"))
 public class User {
 
+    /**
+     * Name of the second-level cache region holding user entities.
+     */
+    public static final String CACHE_REGION = "users";
+
+    /**
+     * Name of the query cache region holding lookups by email.
+     */
+    public static final String EMAIL_QUERY_CACHE_REGION = "users-by-email";
+
+    /**
+     * Query space declared by the single-row UPDATE and DELETE statements instead of the users table,
+     * so they do not drop the whole cache region; see {@link org.example.cache.UserCacheEviction}.
+     */
+    public static final String SINGLE_ROW_QUERY_SPACE = "users-single-row";
+
+    /**
+     * Name of the unique constraint on the email address, shared with the schema of the reactive stack.
+     */
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     /**
      * Auto-generated unique identifier for the user.
+     * Taken from a pooled sequence so that inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -32,8 +70,9 @@ public class User {
     /**
      * Email address of the user.
      * Must be unique and cannot be null.
+     * Stored in lower case, so that case-insensitive lookups can use the unique index.
      */
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     /**
@@ -47,19 +86,72 @@ public class User {
      * Date and time when the user account was created.
      * Once set, cannot be changed (updatable=false).
      */
-    @Column(nullable = false, updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     /**
-     * Private constructor for building a new user entity.
+     * Instant (UTC) when the user was last inserted or updated.
+     * Indexed together with the id, so that changes since a watermark are found with a range scan.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    /**
+     * Version of the user record used for optimistic locking.
+     * Incremented on every update.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Fills in the creation date if the caller did not set it explicitly, and stamps the insert time.
+     */
+    @PrePersist
+    void onCreate() {
+        updatedAt = Instant.now();
+        if (createdAt == null) {
+            createdAt = LocalDateTime.ofInstant(updatedAt, ZoneId.systemDefault());
+        }
+    }
+
+    /**
+     * Stamps the update time. Bulk UPDATE statements bypass this callback and set the column themselves.
+     */
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = Instant.now();
+    }
+
+    /**
+     * Sets the email address of the user in its normalized form.
+     *
+     * @param email Email address of the user.
+     */
+    public void setEmail(String email) {
+        this.email = normalizeEmail(email);
+    }
+
+    /**
+     * Normalizes an email address the way it is stored, i.e. to lower case.
+     *
+     * @param email Email address to normalize, may be null.
+     * @return The normalized email address, or null.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Creates a new, not yet persisted user entity.
      *
      * @param name  Full name of the user.
      * @param email Email address of the user.
      * @param age   Age of the user.
      */
-    User(String name, String email, Integer age) {
+    public User(String name, String email, Integer age) {
         this.name = name;
-        this.email = email;
+        this.email = normalizeEmail(email);
         this.age = age;
     }
 }
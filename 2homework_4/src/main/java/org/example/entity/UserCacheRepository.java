@@ -0,0 +1,15 @@
+package org.example.entity;
+
+/**
+ * Repository fragment for keeping the second-level cache in step with the single-row statements of
+ * {@link UserRepository}, which bypass the entity and so its cache.
+ */
+public interface UserCacheRepository {
+
+    /**
+     * Evicts a written user from the second-level cache; to be called once the writing transaction has completed.
+     *
+     * @param id The id of the updated or deleted user.
+     */
+    void evictFromCache(Long id);
+}
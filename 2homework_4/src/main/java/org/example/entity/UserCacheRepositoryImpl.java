@@ -0,0 +1,21 @@
+package org.example.entity;
+
+import org.example.cache.UserCacheEviction;
+import org.hibernate.SessionFactory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of {@link UserCacheRepository} on top of the Hibernate cache behind the JPA entity manager.
+ */
+public class UserCacheRepositoryImpl implements UserCacheRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void evictFromCache(Long id) {
+        UserCacheEviction.evict(entityManager.getEntityManagerFactory().unwrap(SessionFactory.class), id);
+    }
+}
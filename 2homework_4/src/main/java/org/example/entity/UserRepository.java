@@ -1,22 +1,171 @@
 package org.example.entity;
 
+import org.example.dto.UserChangeDTO;
+import org.example.dto.UserResponseDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repository interface for managing {@link User} entities.
  * Extends JPA's standard repository capabilities for CRUD operations.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository, UserCacheRepository {
 
     /**
      * Finds a user by their email address.
+     * The result is kept in the query cache when the second-level cache is enabled.
      *
      * @param email The email address to search for.
      * @return An {@link Optional} containing the user if found, otherwise empty.
      */
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = User.EMAIL_QUERY_CACHE_REGION)
+    })
     Optional<User> findByEmail(String email);
+
+    /**
+     * Checks whether a user with the given email address exists.
+     *
+     * @param email The email address to check.
+     * @return true if such a user exists, otherwise false.
+     */
+    boolean existsByEmail(String email);
+
+    /**
+     * Checks whether a user other than the given one has the given email address.
+     *
+     * @param email The email address to check.
+     * @param id    The id of the user to ignore.
+     * @return true if such a user exists, otherwise false.
+     */
+    boolean existsByEmailAndIdNot(String email, Long id);
+
+    /**
+     * Finds which of the given email addresses are already taken, using a single IN query.
+     *
+     * @param emails The email addresses to check.
+     * @return The subset of the given addresses that already exist.
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    /**
+     * Finds the users with the given ids using a single IN query, selected directly as response DTOs.
+     * Callers keep the number of ids within the parameter limits of the database.
+     *
+     * @param ids The ids to look up.
+     * @return The users that exist, in no particular order.
+     */
+    @Query("SELECT new org.example.dto.UserResponseDTO(u.id, u.name, u.email, u.version) "
+            + "FROM User u WHERE u.id IN :ids")
+    List<UserResponseDTO> findAllByIds(Collection<Long> ids);
+
+    /**
+     * Finds the next keyset page of users, i.e. users with an id greater than the given cursor.
+     * Uses an index range scan on the primary key instead of an OFFSET scan, and selects the response DTOs
+     * directly, so no entities are hydrated or tracked by the persistence context.
+     *
+     * @param afterId The last id seen by the client (exclusive lower bound).
+     * @param limit   Maximum number of users to return.
+     * @return Users ordered by id ascending.
+     */
+    @Query("SELECT new org.example.dto.UserResponseDTO(u.id, u.name, u.email, u.version) "
+            + "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserResponseDTO> findPage(Long afterId, Limit limit);
+
+    /**
+     * Finds users inserted or updated after the given watermark, ordered by update time and id,
+     * using a range scan on the (updated_at, id) index.
+     *
+     * @param since   Update time of the watermark.
+     * @param afterId User id of the watermark, breaking ties between updates at the same time.
+     * @param until   Update time from which changes are left out, as they may belong to transactions still open.
+     * @param limit   Maximum number of users to return.
+     * @return Current state of the changed users as change entries.
+     */
+    @Query("SELECT new org.example.dto.UserChangeDTO(u.id, u.name, u.email, u.updatedAt) FROM User u "
+            + "WHERE (u.updatedAt > :since OR (u.updatedAt = :since AND u.id > :afterId)) AND u.updatedAt < :until "
+            + "ORDER BY u.updatedAt, u.id")
+    List<UserChangeDTO> findChanges(Instant since, Long afterId, Instant until, Limit limit);
+
+    /**
+     * Streams all users ordered by id through a server-side cursor.
+     * Rows are selected directly as response DTOs, so the persistence context does not grow while streaming.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return A lazily fetched {@link Stream} of users.
+     */
+    @Query("SELECT new org.example.dto.UserResponseDTO(u.id, u.name, u.email, u.version) FROM User u ORDER BY u.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<UserResponseDTO> streamAll();
+
+    /**
+     * Updates name, email and age of a user with a single UPDATE statement, without loading the entity.
+     * Increments the version of the user. Leaves the second-level cache alone, see {@link #evictFromCache}.
+     *
+     * @param id        The id of the user to update.
+     * @param name      The new name.
+     * @param email     The new email address.
+     * @param age       The new age.
+     * @param updatedAt The time of the update.
+     * @return Number of updated rows, 0 if no such user exists.
+     */
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = User.SINGLE_ROW_QUERY_SPACE))
+    @Query(value = "UPDATE users SET name = :name, email = :email, age = :age, updated_at = :updatedAt, "
+            + "version = version + 1 WHERE id = :id", nativeQuery = true)
+    int updateDetails(Long id, String name, String email, Integer age, Instant updatedAt);
+
+    /**
+     * Updates name, email and age of a user only if it still has the expected version.
+     * Increments the version of the user. Leaves the second-level cache alone, see {@link #evictFromCache}.
+     *
+     * @param id        The id of the user to update.
+     * @param name      The new name.
+     * @param email     The new email address.
+     * @param age       The new age.
+     * @param updatedAt The time of the update.
+     * @param version   The version the client has last seen.
+     * @return Number of updated rows, 0 if no such user exists or its version differs.
+     */
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = User.SINGLE_ROW_QUERY_SPACE))
+    @Query(value = "UPDATE users SET name = :name, email = :email, age = :age, updated_at = :updatedAt, "
+            + "version = version + 1 WHERE id = :id AND version = :version", nativeQuery = true)
+    int updateDetailsIfVersion(Long id, String name, String email, Integer age, Instant updatedAt, Long version);
+
+    /**
+     * Deletes a user with a single DELETE statement, without loading the entity.
+     * Leaves the second-level cache alone, see {@link #evictFromCache}.
+     *
+     * @param id The id of the user to delete.
+     * @return Number of deleted rows, 0 if no such user exists.
+     */
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = User.SINGLE_ROW_QUERY_SPACE))
+    @Query(value = "DELETE FROM users WHERE id = :id", nativeQuery = true)
+    int deleteUserById(Long id);
 }
@@ -0,0 +1,23 @@
+package org.example.entity;
+
+import org.example.dto.UserResponseDTO;
+import org.example.dto.UserSearchCriteriaDTO;
+
+import java.util.List;
+
+/**
+ * Repository fragment for searching {@link User} entities by a combination of optional filters.
+ */
+public interface UserSearchRepository {
+
+    /**
+     * Finds the next keyset page of users matching all set filters of the criteria.
+     * Every filter is a range or equality predicate on an indexed column.
+     *
+     * @param criteria The filters to apply.
+     * @param afterId  The last id seen by the client (exclusive lower bound).
+     * @param limit    Maximum number of users to return.
+     * @return Matching users ordered by id ascending, selected directly as response DTOs.
+     */
+    List<UserResponseDTO> search(UserSearchCriteriaDTO criteria, long afterId, int limit);
+}
@@ -0,0 +1,72 @@
+package org.example.entity;
+
+import org.example.dto.UserResponseDTO;
+import org.example.dto.UserSearchCriteriaDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPQL-based implementation of {@link UserSearchRepository}.
+ * Only the predicates of the filters that are set are added to the query,
+ * so the database can pick the index of the most selective one.
+ * <p>
+ * The page is found by a subquery selecting only ids, which the filter's index covers, and the rows are then
+ * read by primary key. Selecting the full rows directly with {@code id > :afterId ORDER BY id} makes planners
+ * prefer walking the primary key in order and filtering every row, which is a full scan for rare matches.
+ */
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserResponseDTO> search(UserSearchCriteriaDTO criteria, long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT new org.example.dto.UserResponseDTO(u.id, u.name, u.email, u.version) "
+                + "FROM User u WHERE u.id IN (SELECT s.id FROM User s WHERE s.id > :afterId");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("afterId", afterId);
+
+        if (criteria.getNamePrefix() != null && !criteria.getNamePrefix().isEmpty()) {
+            jpql.append(" AND s.name LIKE :namePrefix ESCAPE '\\'");
+            parameters.put("namePrefix", escapeLike(criteria.getNamePrefix()) + "%");
+        }
+        if (criteria.getEmail() != null) {
+            jpql.append(" AND s.email = :email");
+            parameters.put("email", User.normalizeEmail(criteria.getEmail()));
+        }
+        if (criteria.getMinAge() != null) {
+            jpql.append(" AND s.age >= :minAge");
+            parameters.put("minAge", criteria.getMinAge());
+        }
+        if (criteria.getMaxAge() != null) {
+            jpql.append(" AND s.age <= :maxAge");
+            parameters.put("maxAge", criteria.getMaxAge());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            jpql.append(" AND s.createdAt >= :createdFrom");
+            parameters.put("createdFrom", criteria.getCreatedFrom());
+        }
+        if (criteria.getCreatedTo() != null) {
+            jpql.append(" AND s.createdAt < :createdTo");
+            parameters.put("createdTo", criteria.getCreatedTo());
+        }
+        jpql.append(" ORDER BY s.id LIMIT :limit) ORDER BY u.id");
+        parameters.put("limit", limit);
+
+        TypedQuery<UserResponseDTO> query = entityManager.createQuery(jpql.toString(), UserResponseDTO.class);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    /**
+     * Escapes LIKE wildcards, so that the prefix is matched literally.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
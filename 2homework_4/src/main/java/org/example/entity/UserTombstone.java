@@ -0,0 +1,70 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Entity class recording that a user was deleted, so that replicas syncing changes can delete it too.
+ * Maps directly to the "user_tombstones" table in the database; one row per deleted user id.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "user_tombstones", indexes = {
+        @Index(name = "idx_user_tombstones_deleted_at", columnList = "deleted_at, user_id")
+})
+public class UserTombstone implements Persistable<Long> {
+
+    /**
+     * Identifier the deleted user had. User ids are never reused, so it is unique.
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * Instant (UTC) when the user was deleted.
+     */
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    private Instant deletedAt;
+
+    /**
+     * Whether the tombstone has not been stored yet; lets {@code save} insert it without a preceding select.
+     */
+    @Transient
+    private boolean newTombstone = true;
+
+    /**
+     * Constructor for recording a new deletion.
+     *
+     * @param userId    Identifier of the deleted user.
+     * @param deletedAt Instant of the deletion.
+     */
+    public UserTombstone(Long userId, Instant deletedAt) {
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public Long getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newTombstone;
+    }
+
+    /**
+     * Marks the tombstone as stored once it was inserted or loaded.
+     */
+    @PostPersist
+    @PostLoad
+    void markStored() {
+        newTombstone = false;
+    }
+}
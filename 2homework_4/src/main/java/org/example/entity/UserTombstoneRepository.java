@@ -0,0 +1,43 @@
+package org.example.entity;
+
+import org.example.dto.UserChangeDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link UserTombstone} entities.
+ */
+@Repository
+public interface UserTombstoneRepository extends JpaRepository<UserTombstone, Long> {
+
+    /**
+     * Finds deletions after the given watermark, ordered by deletion time and user id,
+     * using a range scan on the (deleted_at, user_id) index.
+     *
+     * @param since   Deletion time of the watermark.
+     * @param afterId User id of the watermark, breaking ties between deletions at the same time.
+     * @param until   Deletion time from which deletions are left out, as they may belong to transactions still open.
+     * @param limit   Maximum number of deletions to return.
+     * @return Deletions as change entries.
+     */
+    @Query("SELECT new org.example.dto.UserChangeDTO(t.userId, t.deletedAt) FROM UserTombstone t "
+            + "WHERE (t.deletedAt > :since OR (t.deletedAt = :since AND t.userId > :afterId)) AND t.deletedAt < :until "
+            + "ORDER BY t.deletedAt, t.userId")
+    List<UserChangeDTO> findChanges(Instant since, Long afterId, Instant until, Limit limit);
+
+    /**
+     * Deletes the deletion records older than the given instant with a single DELETE statement.
+     *
+     * @param before Instant before which deletions are no longer reported.
+     * @return Number of purged records.
+     */
+    @Modifying
+    @Query("DELETE FROM UserTombstone t WHERE t.deletedAt < :before")
+    int deleteDeletedBefore(Instant before);
+}
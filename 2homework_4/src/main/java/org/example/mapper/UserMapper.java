@@ -2,10 +2,13 @@ package org.example.mapper;
 
 import org.example.entity.User;
 import org.example.dto.UserDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
 import org.springframework.stereotype.Component;
 
 /**
- * Mapper class responsible for converting between User entity and UserDTO.
+ * Mapper class responsible for converting between User entity and its DTOs.
+ * Copies fields directly, without reflection, so it is cheap enough for every request.
  */
 @Component
 public class UserMapper {
@@ -43,4 +46,31 @@ public class UserMapper {
         user.setName(dto.getName());
         user.setEmail(dto.getEmail());
     }
+
+    /**
+     * Converts a User entity to a UserResponseDTO.
+     *
+     * @param user Source User entity to convert.
+     * @return Corresponding UserResponseDTO object, or null if source user is null.
+     */
+    public UserResponseDTO toResponseDto(User user) {
+        if (user == null) return null;
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setVersion(user.getVersion());
+        return dto;
+    }
+
+    /**
+     * Converts a UserRequestDTO to a new User entity.
+     *
+     * @param dto Source UserRequestDTO to convert.
+     * @return Corresponding User entity, or null if source DTO is null.
+     */
+    public User toEntity(UserRequestDTO dto) {
+        if (dto == null) return null;
+        return new User(dto.getName(), dto.getEmail(), dto.getAge());
+    }
 }
@@ -0,0 +1,42 @@
+package org.example.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class enabling {@link io.micrometer.core.annotation.Timed} on Spring beans,
+ * used for the per-method latency timers of the service and DAO layers.
+ * Metrics are scraped from {@code /actuator/prometheus}. The timers publish histogram buckets rather than
+ * client-side percentiles, so percentiles can be computed over several instances with {@code histogram_quantile}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Name of the timer recording {@code UserService} method latencies.
+     */
+    public static final String SERVICE_TIMER = "user.service";
+
+    /**
+     * Name of the timer recording {@code UserDAOImpl} method latencies.
+     */
+    public static final String DAO_TIMER = "user.dao";
+
+    /**
+     * Name of the counter of single user lookups, tagged with whether they ran or shared a concurrent identical one.
+     */
+    public static final String COALESCING_COUNTER = "user.lookup.calls";
+
+    /**
+     * Creates the aspect that records {@code @Timed} methods into the registry.
+     *
+     * @param registry meter registry to record into
+     * @return the timing aspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
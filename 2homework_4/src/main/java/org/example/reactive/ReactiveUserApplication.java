@@ -0,0 +1,44 @@
+package org.example.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Entry point of the reactive user API.
+ * Serves the same {@code /api/v1/users} contract as the blocking application, but with WebFlux on a small
+ * number of event-loop threads and R2DBC instead of JDBC. Runs with the "reactive" profile.
+ * <p>
+ * The class and all beans of this package only apply to a reactive web application,
+ * so the blocking application skips them when scanning.
+ */
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class
+})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserApplication {
+
+    /**
+     * Reactive application entry point.
+     *
+     * @param args Command-line arguments passed on to Spring Boot
+     */
+    public static void main(String[] args) {
+        builder().run(args);
+    }
+
+    /**
+     * Creates the application builder with the reactive web type and profile set.
+     *
+     * @return builder of the reactive application
+     */
+    public static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(ReactiveUserApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive");
+    }
+}
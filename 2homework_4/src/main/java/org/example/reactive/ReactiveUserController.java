@@ -0,0 +1,112 @@
+package org.example.reactive;
+
+import org.example.dto.UserPageDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.validation.Valid;
+
+/**
+ * Reactive controller serving the same CRUD contract on Users as {@link org.example.controller.UserController}.
+ */
+@Tag(name = "User Management (reactive)", description = "Non-blocking operations related to managing users.")
+@RestController
+@RequestMapping("/api/v1/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    /**
+     * Constructor injection of the {@link ReactiveUserService}.
+     *
+     * @param userService Reactive service layer implementation for user management.
+     */
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * Creates a new user.
+     *
+     * @param requestDto Validated input DTO containing necessary fields for creating a user.
+     * @return Created user's details.
+     */
+    @Operation(summary = "Create a new user.")
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<UserResponseDTO> createUser(@Valid @RequestBody UserRequestDTO requestDto) {
+        return userService.createUser(requestDto);
+    }
+
+    /**
+     * Retrieves an existing user by their id.
+     *
+     * @param id Unique identifier of the user.
+     * @return The requested user, or 404 if no such user exists.
+     */
+    @Operation(summary = "Get user by its id.")
+    @GetMapping("/{id}")
+    public Mono<UserResponseDTO> getUserById(@PathVariable long id) {
+        return userService.getUserById(id);
+    }
+
+    /**
+     * Fetches registered users page by page using keyset pagination.
+     *
+     * @param cursor Id of the last user from the previous page, omitted for the first page.
+     * @param limit  Maximum number of users on the page.
+     * @return One page of users and the cursor for the next page.
+     */
+    @Operation(summary = "Get users page by page.")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<UserPageDTO> getAllUsers(@RequestParam(required = false) Long cursor,
+                                         @RequestParam(required = false) Integer limit) {
+        return userService.getUsersPage(cursor, limit);
+    }
+
+    /**
+     * Streams all users as newline-delimited JSON, honoring the client's backpressure.
+     *
+     * @return All users, one per line.
+     */
+    @Operation(summary = "Stream all users as NDJSON.")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserResponseDTO> streamAllUsers() {
+        return userService.streamUsers();
+    }
+
+    /**
+     * Updates an existing user.
+     *
+     * @param id         Identifier of the user to be updated.
+     * @param requestDto New values for updating the user record.
+     * @return Updated user's information.
+     */
+    @Operation(summary = "Update an existing user by providing its id and new data.")
+    @PutMapping("/{id}")
+    public Mono<UserResponseDTO> updateUser(@PathVariable long id, @Valid @RequestBody UserRequestDTO requestDto) {
+        return userService.updateUser(id, requestDto);
+    }
+
+    /**
+     * Deletes a user from the system.
+     *
+     * @param id Unique identifier of the user to be removed.
+     * @return Completion once the user is deleted.
+     */
+    @Operation(summary = "Remove a user by specifying its id.")
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteUser(@PathVariable long id) {
+        return userService.deleteUser(id);
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Reactive repository interface for managing {@link UserRecord} rows through R2DBC.
+ */
+public interface ReactiveUserRepository extends ReactiveCrudRepository<UserRecord, Long> {
+
+    /**
+     * Checks whether a user with the given email address exists.
+     *
+     * @param email The email address to check.
+     * @return true if such a user exists, otherwise false.
+     */
+    Mono<Boolean> existsByEmail(String email);
+
+    /**
+     * Checks whether a user other than the given one has the given email address.
+     *
+     * @param email The email address to check.
+     * @param id    The id of the user to ignore.
+     * @return true if such a user exists, otherwise false.
+     */
+    Mono<Boolean> existsByEmailAndIdNot(String email, Long id);
+
+    /**
+     * Finds the next keyset page of users.
+     *
+     * @param afterId The last id seen by the client (exclusive lower bound).
+     * @param limit   Maximum number of users to return.
+     * @return Users ordered by id ascending.
+     */
+    @Query("SELECT * FROM users WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<UserRecord> findPage(long afterId, int limit);
+
+    /**
+     * Streams all users ordered by id; rows are fetched as the subscriber requests them.
+     *
+     * @return All users ordered by id ascending.
+     */
+    Flux<UserRecord> findAllByOrderByIdAsc();
+
+    /**
+     * Updates name, email and age of a user with a single UPDATE statement and increments its version.
+     *
+     * @param id        The id of the user to update.
+     * @param name      The new name.
+     * @param email     The new email address.
+     * @param age       The new age.
+     * @param updatedAt The time of the update.
+     * @return Number of updated rows, 0 if no such user exists.
+     */
+    @Modifying
+    @Query("UPDATE users SET name = :name, email = :email, age = :age, updated_at = :updatedAt, "
+            + "version = version + 1 WHERE id = :id")
+    Mono<Integer> updateDetails(long id, String name, String email, Integer age, Instant updatedAt);
+
+    /**
+     * Deletes a user with a single DELETE statement.
+     *
+     * @param id The id of the user to delete.
+     * @return Number of deleted rows, 0 if no such user exists.
+     */
+    @Modifying
+    @Query("DELETE FROM users WHERE id = :id")
+    Mono<Integer> deleteUserById(long id);
+
+    /**
+     * Records that a user was deleted, like {@link org.example.entity.UserTombstone}, so that delta sync reports it.
+     *
+     * @param id        The id of the deleted user.
+     * @param deletedAt The time of the deletion.
+     * @return Number of inserted rows.
+     */
+    @Modifying
+    @Query("INSERT INTO user_tombstones (user_id, deleted_at) VALUES (:id, :deletedAt)")
+    Mono<Integer> insertTombstone(long id, Instant deletedAt);
+}
@@ -0,0 +1,188 @@
+package org.example.reactive;
+
+import org.example.dto.UserPageDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.entity.User;
+import org.example.service.EmailAlreadyExistsException;
+import org.example.service.UserNotFoundException;
+import org.example.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link UserService}, built on R2DBC.
+ * Follows the same rules: lower-case emails, keyset pagination and single-statement updates and deletes.
+ * Writes stamp {@code updated_at} and record deletions in {@code user_tombstones}, so that the delta sync of the
+ * blocking application reports them when both share a database. They are not published to its live change feed,
+ * which only carries the changes made in that process.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    /**
+     * Reactive repository used for accessing user data in the database.
+     */
+    private final ReactiveUserRepository userRepository;
+
+    /**
+     * Database client used for fetching new ids from the sequence.
+     */
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Dialect-specific statement returning the next value of users_seq.
+     */
+    private final String nextIdQuery;
+
+    /**
+     * Default constructor injecting dependencies.
+     *
+     * @param userRepository injected reactive repository for user data access
+     * @param databaseClient injected R2DBC database client
+     * @param nextIdQuery    statement returning the next id
+     */
+    public ReactiveUserService(ReactiveUserRepository userRepository, DatabaseClient databaseClient,
+                               @Value("${reactive.users.next-id-query}") String nextIdQuery) {
+        this.userRepository = userRepository;
+        this.databaseClient = databaseClient;
+        this.nextIdQuery = nextIdQuery;
+    }
+
+    /**
+     * Creates a new user, ensuring the uniqueness of the email address.
+     * A concurrent creation with the same address is rejected by the unique index and reported the same way.
+     *
+     * @param requestDto contains the details of the new user
+     * @return newly created user, or an {@link EmailAlreadyExistsException} error
+     */
+    public Mono<UserResponseDTO> createUser(UserRequestDTO requestDto) {
+        String email = User.normalizeEmail(requestDto.getEmail());
+        return userRepository.existsByEmail(email)
+                .flatMap(exists -> exists
+                        ? Mono.error(new EmailAlreadyExistsException(email))
+                        : nextId())
+                .flatMap(id -> {
+                    Instant now = Instant.now();
+                    UserRecord user = new UserRecord();
+                    user.setId(id);
+                    user.setName(requestDto.getName());
+                    user.setEmail(email);
+                    user.setAge(requestDto.getAge());
+                    user.setCreatedAt(LocalDateTime.ofInstant(now, ZoneId.systemDefault()));
+                    user.setUpdatedAt(now);
+                    return userRepository.save(user);
+                })
+                .onErrorMap(EmailAlreadyExistsException::isEmailConflict, e -> new EmailAlreadyExistsException(email))
+                .map(ReactiveUserService::toResponseDto);
+    }
+
+    /**
+     * Retrieves a user by their unique identifier.
+     *
+     * @param id unique identifier of the user to retrieve
+     * @return the user, or a {@link UserNotFoundException} error
+     */
+    public Mono<UserResponseDTO> getUserById(long id) {
+        return userRepository.findById(id)
+                .map(ReactiveUserService::toResponseDto)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)));
+    }
+
+    /**
+     * Retrieves one keyset-paginated page of users, like {@link UserService#getUsersPage}.
+     *
+     * @param cursor id of the last user seen by the client, or null to start from the beginning
+     * @param limit  requested page size, clamped to {@link UserService#MAX_PAGE_SIZE}
+     * @return page of users together with the cursor for the next page
+     */
+    public Mono<UserPageDTO> getUsersPage(Long cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? UserService.DEFAULT_PAGE_SIZE : Math.min(limit, UserService.MAX_PAGE_SIZE);
+        return userRepository.findPage(cursor == null ? 0L : cursor, pageSize + 1)
+                .map(ReactiveUserService::toResponseDto)
+                .collectList()
+                .map(users -> {
+                    boolean hasMore = users.size() > pageSize;
+                    List<UserResponseDTO> items = hasMore ? users.subList(0, pageSize) : users;
+                    return new UserPageDTO(items, hasMore ? items.get(items.size() - 1).getId() : null);
+                });
+    }
+
+    /**
+     * Streams all users ordered by id. Rows are read from the database only as fast as the subscriber consumes them.
+     *
+     * @return all users
+     */
+    public Flux<UserResponseDTO> streamUsers() {
+        return userRepository.findAllByOrderByIdAsc().map(ReactiveUserService::toResponseDto);
+    }
+
+    /**
+     * Updates an existing user with a single UPDATE statement.
+     * The new email address must not belong to another user; a concurrent update racing for the same address
+     * is rejected by the unique index and reported the same way.
+     *
+     * @param id         unique identifier of the user to update
+     * @param requestDto updated user details
+     * @return updated user, or a {@link UserNotFoundException} or {@link EmailAlreadyExistsException} error
+     */
+    public Mono<UserResponseDTO> updateUser(long id, UserRequestDTO requestDto) {
+        String email = User.normalizeEmail(requestDto.getEmail());
+        return userRepository.existsByEmailAndIdNot(email, id)
+                .flatMap(taken -> taken
+                        ? Mono.<Integer>error(new EmailAlreadyExistsException(email))
+                        : userRepository.updateDetails(id, requestDto.getName(), email, requestDto.getAge(),
+                                Instant.now()))
+                .onErrorMap(EmailAlreadyExistsException::isEmailConflict, e -> new EmailAlreadyExistsException(email))
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new UserNotFoundException(id))
+                        : Mono.fromSupplier(() -> {
+                            UserResponseDTO responseDto = new UserResponseDTO();
+                            responseDto.setId(id);
+                            responseDto.setName(requestDto.getName());
+                            responseDto.setEmail(email);
+                            return responseDto;
+                        }));
+    }
+
+    /**
+     * Deletes a user with a single DELETE statement and records a tombstone in the same transaction.
+     *
+     * @param id unique identifier of the user to delete
+     * @return completion, or a {@link UserNotFoundException} error
+     */
+    @Transactional
+    public Mono<Void> deleteUser(long id) {
+        return userRepository.deleteUserById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new UserNotFoundException(id))
+                        : userRepository.insertTombstone(id, Instant.now()))
+                .then();
+    }
+
+    private Mono<Long> nextId() {
+        return databaseClient.sql(nextIdQuery)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static UserResponseDTO toResponseDto(UserRecord user) {
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setVersion(user.getVersion());
+        return dto;
+    }
+}
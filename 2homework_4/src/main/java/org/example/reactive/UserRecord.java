@@ -0,0 +1,59 @@
+package org.example.reactive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of a row of the "users" table, the reactive counterpart of {@link org.example.entity.User}.
+ */
+@Getter
+@Setter
+@Table("users")
+public class UserRecord {
+
+    /**
+     * Unique identifier of the user, taken from the users_seq sequence before insert.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * Full name of the user.
+     */
+    private String name;
+
+    /**
+     * Email address of the user, stored in lower case.
+     */
+    private String email;
+
+    /**
+     * Age of the user.
+     */
+    private Integer age;
+
+    /**
+     * Date and time when the user account was created.
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * Instant (UTC) of the last insert or update, read by the delta sync of the blocking application.
+     */
+    @Column("updated_at")
+    private Instant updatedAt;
+
+    /**
+     * Version of the user record; null until the record is inserted.
+     */
+    @Version
+    private Long version;
+}
@@ -0,0 +1,62 @@
+package org.example.service;
+
+import org.example.dto.UserChangeDTO;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in the stream of user changes: the instant of a change and the user id, which breaks ties.
+ * Rendered as {@code <ISO instant>_<id>}, e.g. {@code 2024-05-01T12:30:00.123456Z_42}.
+ *
+ * @param changedAt instant of the last change seen
+ * @param id        id of the user of that change
+ */
+record ChangeWatermark(Instant changedAt, long id) {
+
+    /**
+     * Watermark before any change, used when a client syncs for the first time.
+     */
+    static final ChangeWatermark INITIAL = new ChangeWatermark(Instant.EPOCH, 0L);
+
+    private static final char SEPARATOR = '_';
+
+    /**
+     * Parses a watermark previously returned to a client.
+     * Watermarks issued before changes were stamped in UTC carry a local date-time and are read in the
+     * system time zone they were taken in.
+     *
+     * @param value the watermark, or null to start from the beginning
+     * @return the parsed watermark
+     * @throws InvalidWatermarkException if the value is malformed
+     */
+    static ChangeWatermark parse(String value) {
+        if (value == null || value.isBlank()) {
+            return INITIAL;
+        }
+        int separator = value.lastIndexOf(SEPARATOR);
+        try {
+            String changedAt = value.substring(0, separator);
+            Instant instant = changedAt.endsWith("Z")
+                    ? Instant.parse(changedAt)
+                    : LocalDateTime.parse(changedAt).atZone(ZoneId.systemDefault()).toInstant();
+            return new ChangeWatermark(instant, Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+            throw new InvalidWatermarkException(value);
+        }
+    }
+
+    /**
+     * Returns the watermark right after the given change.
+     */
+    static ChangeWatermark after(UserChangeDTO change) {
+        return new ChangeWatermark(change.getChangedAt(), change.getId());
+    }
+
+    @Override
+    public String toString() {
+        return changedAt.toString() + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.service;
+
+import org.example.entity.User;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Locale;
+
+/**
+ * Thrown when a user is created or updated with an email address that is already taken.
+ * Translated to HTTP 409 (CONFLICT).
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class EmailAlreadyExistsException extends RuntimeException {
+
+    /**
+     * Creates the exception for the given email address.
+     *
+     * @param email the duplicate email address
+     */
+    public EmailAlreadyExistsException(String email) {
+        super("User with email " + email + " already exists!");
+    }
+
+    /**
+     * Tells whether a write was rejected by the unique constraint on the email address,
+     * as opposed to another constraint such as the primary key or a NOT NULL column.
+     *
+     * @param e the error of the write
+     * @return true if the email address was already taken
+     */
+    public static boolean isEmailConflict(Throwable e) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            return false;
+        }
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a delta-sync watermark was not issued by this service.
+ * Translated to HTTP 400 (BAD REQUEST).
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidWatermarkException extends RuntimeException {
+
+    /**
+     * Creates the exception for the given watermark.
+     *
+     * @param watermark the value that could not be parsed
+     */
+    public InvalidWatermarkException(String watermark) {
+        super("Invalid watermark: " + watermark);
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.metrics.MetricsConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ * The first caller for a key runs the loader; callers arriving while it is still running wait for it and share
+ * its result or exception instead of running the loader themselves. Nothing is cached: once the call has
+ * completed, the next caller for that key runs the loader again. Each waiting caller gets its own copy of the
+ * result, so callers may modify what they receive. A write can {@link #forget} a key so that callers arriving
+ * after it start a new call instead of joining one that may have read the old state.
+ * <p>
+ * In-flight calls are registered in a {@link ConcurrentHashMap}, so callers only contend when their keys fall
+ * into the same hash bin, and waiting callers block on the leader's future rather than on a lock.
+ *
+ * @param <K> key type, e.g. a user id
+ * @param <V> result type
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+    private final UnaryOperator<V> copy;
+
+    /**
+     * Creates a coalescer publishing {@value MetricsConfig#COALESCING_COUNTER} counters tagged with the lookup name
+     * and the outcome {@code executed} (the caller ran the loader) or {@code coalesced} (it shared another call).
+     *
+     * @param name     name of the lookup, used as the {@code lookup} tag
+     * @param registry meter registry to register the counters in
+     * @param copy     copies the leader's result for each waiting caller
+     */
+    SingleFlight(String name, MeterRegistry registry, UnaryOperator<V> copy) {
+        this.copy = copy;
+        this.executed = Counter.builder(MetricsConfig.COALESCING_COUNTER)
+                .tag("lookup", name)
+                .tag("outcome", "executed")
+                .register(registry);
+        this.coalesced = Counter.builder(MetricsConfig.COALESCING_COUNTER)
+                .tag("lookup", name)
+                .tag("outcome", "coalesced")
+                .register(registry);
+    }
+
+    /**
+     * Returns the result of the call in flight for the key, or runs the loader if there is none.
+     *
+     * @param key    key identifying identical calls
+     * @param loader the call to run if no identical one is in flight
+     * @return the loader's result
+     */
+    V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return copy.apply(join(existing));
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Detaches the call in flight for the key, if any: callers already waiting still get its result,
+     * later callers run the loader again.
+     *
+     * @param key key whose data has just been written
+     */
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Detaches all calls in flight, for writes that may affect keys the writer does not know.
+     */
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Waits for another caller's result, rethrowing its exception unwrapped.
+     */
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.dto.UserChangeDTO;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Publishes committed user changes to Server-Sent Events subscribers.
+ * <p>
+ * Subscriptions are asynchronous {@link SseEmitter}s, so an idle subscriber holds no thread. Each subscriber has a
+ * bounded buffer, drained by a delivery thread of its own only while events are pending; a subscriber whose buffer
+ * overflows is disconnected and, like any reconnecting client, resumes from its {@code Last-Event-ID} out of the
+ * recent history. Writes are blocking, so a client that stops reading holds its delivery thread, but no other
+ * subscriber's, until the container's write timeout ({@code server.tomcat.connection-timeout}) aborts the write
+ * and the subscription is completed with the error. The replay is read from the
+ * history page by page rather than through the buffer, so a client may be up to {@value #HISTORY_SIZE} events
+ * behind. Clients that fall behind the history, or reconnect after a restart, receive a {@value #RESET_EVENT} event
+ * and catch up through delta sync ({@code GET /api/v1/users/changes}) before continuing.
+ */
+@Component
+public class UserChangeFeed implements DisposableBean {
+
+    /**
+     * Name of the events carrying a {@link UserChangeDTO}.
+     */
+    public static final String CHANGE_EVENT = "user-change";
+
+    /**
+     * Name of the event telling a client that changes were missed and it has to resync.
+     */
+    public static final String RESET_EVENT = "reset";
+
+    /**
+     * Number of recent events kept for resuming subscribers.
+     */
+    public static final int HISTORY_SIZE = 10_000;
+
+    /**
+     * Number of events buffered per subscriber before it is disconnected as too slow.
+     */
+    public static final int SUBSCRIBER_BUFFER_SIZE = 256;
+
+    /**
+     * Number of history events a replaying subscriber sends per pass, keeping the feed's lock short.
+     */
+    static final int REPLAY_PAGE_SIZE = SUBSCRIBER_BUFFER_SIZE;
+
+    /**
+     * Lifetime of one subscription; clients reconnect afterwards with their last event id.
+     */
+    static final Duration SUBSCRIPTION_TIMEOUT = Duration.ofMinutes(30);
+
+    /**
+     * Interval of the comments sent to detect closed connections.
+     */
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
+    private static final Supplier<SseEmitter.SseEventBuilder> HEARTBEAT = () -> SseEmitter.event().comment("heartbeat");
+
+    private static final Supplier<SseEmitter.SseEventBuilder> RESET = () -> SseEmitter.event().name(RESET_EVENT).data("resync");
+
+    /**
+     * Prefix of the event ids, distinct for every start, so that ids of a previous run are recognized as unknown.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Deque<FeedEvent> history = new ArrayDeque<>(HISTORY_SIZE);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService delivery = Executors.newCachedThreadPool(daemon("user-feed-delivery"));
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("user-feed-heartbeat"));
+    private final Counter dropped;
+
+    /**
+     * Sequence number of the last published event; guarded by {@code this} together with {@link #history}.
+     */
+    private long sequence;
+
+    /**
+     * Creates the feed and registers the {@code user.feed.subscribers} gauge and {@code user.feed.dropped} counter.
+     *
+     * @param meterRegistry injected registry for the feed metrics
+     */
+    public UserChangeFeed(MeterRegistry meterRegistry) {
+        Gauge.builder("user.feed.subscribers", subscribers, Set::size).register(meterRegistry);
+        this.dropped = Counter.builder("user.feed.dropped").register(meterRegistry);
+        heartbeat.scheduleAtFixedRate(() -> subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)),
+                HEARTBEAT_INTERVAL.toMillis(), HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes a change once the transaction that made it has committed.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        publish(event.change());
+    }
+
+    /**
+     * Appends a change to the history and hands it to every subscriber without blocking.
+     * Subscribers still replaying read it from the history once they get there.
+     */
+    synchronized void publish(UserChangeDTO change) {
+        FeedEvent event = new FeedEvent(++sequence, change);
+        if (history.size() == HISTORY_SIZE) {
+            history.removeFirst();
+        }
+        history.addLast(event);
+        subscribers.forEach(subscriber -> {
+            if (subscriber.replaying) {
+                subscriber.scheduleDrain();
+            } else {
+                subscriber.offer(event);
+            }
+        });
+    }
+
+    /**
+     * Opens a subscription, first replaying the changes after {@code lastEventId} if they are still known.
+     *
+     * @param lastEventId id of the last event the client received, or null for a new client
+     * @return the emitter to return from the request handler
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        synchronized (this) {
+            replay(subscriber, lastEventId);
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Starts replaying the events the client missed, or queues a reset if they are no longer in the history.
+     */
+    private void replay(Subscriber subscriber, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long lastSequence = parseSequence(lastEventId);
+        long oldestKept = history.isEmpty() ? sequence + 1 : history.peekFirst().sequence();
+        if (lastSequence < oldestKept - 1 || lastSequence > sequence) {
+            subscriber.offer(RESET);
+            return;
+        }
+        if (lastSequence < sequence) {
+            subscriber.replayedUpTo = lastSequence;
+            subscriber.replaying = true;
+            subscriber.scheduleDrain();
+        }
+    }
+
+    /**
+     * Returns the next history events a replaying subscriber has not sent yet, at most {@value #REPLAY_PAGE_SIZE}.
+     * Ends the replay once the subscriber has caught up; live events are buffered from then on.
+     *
+     * @return the events, empty once caught up, or null if events the subscriber needs were evicted meanwhile
+     */
+    private synchronized List<FeedEvent> nextReplayPage(Subscriber subscriber) {
+        long after = subscriber.replayedUpTo;
+        if (after >= sequence) {
+            subscriber.replaying = false;
+            return List.of();
+        }
+        if (history.peekFirst().sequence() > after + 1) {
+            subscriber.replaying = false;
+            return null;
+        }
+        List<FeedEvent> page = new ArrayList<>(REPLAY_PAGE_SIZE);
+        for (FeedEvent event : history) {
+            if (event.sequence() > after) {
+                page.add(event);
+                if (page.size() == REPLAY_PAGE_SIZE) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Extracts the sequence number of an event id issued by this run, or returns -1 for any other id.
+     */
+    private long parseSequence(String eventId) {
+        int separator = eventId.indexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Stops the delivery threads and ends all subscriptions.
+     */
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        delivery.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A published change with its position in the feed.
+     */
+    private final class FeedEvent implements Supplier<SseEmitter.SseEventBuilder> {
+
+        private final long sequence;
+        private final UserChangeDTO change;
+
+        FeedEvent(long sequence, UserChangeDTO change) {
+            this.sequence = sequence;
+            this.change = change;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+
+        @Override
+        public SseEmitter.SseEventBuilder get() {
+            return SseEmitter.event().id(epoch + "-" + sequence).name(CHANGE_EVENT).data(change);
+        }
+    }
+
+    /**
+     * One connected client with its bounded buffer of events still to send.
+     * At most one delivery task per subscriber runs at a time, so events are sent in order.
+     * While it replays the history, live events are not buffered but read from the history as well.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> buffer =
+                new ArrayBlockingQueue<>(SUBSCRIBER_BUFFER_SIZE);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        /**
+         * Whether the subscriber is still sending missed events from the history; changed under the feed's lock.
+         */
+        private volatile boolean replaying;
+
+        /**
+         * Sequence number of the last history event sent during the replay.
+         */
+        private volatile long replayedUpTo;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Buffers an event and schedules delivery; disconnects the subscriber if the buffer is full.
+         * The response is ended by the delivery task: completing the emitter here would wait for the write that
+         * is blocked on the slow client, and with it the publishing transaction.
+         */
+        void offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                dropped.increment();
+                close();
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                delivery.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (replaying) {
+                    replayHistory();
+                }
+                Supplier<SseEmitter.SseEventBuilder> event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    emitter.send(event.get());
+                }
+                if (closed) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // an event offered after the last poll but before the flag was reset would otherwise wait for the next one
+            if (!closed && (replaying || !buffer.isEmpty())) {
+                scheduleDrain();
+            }
+        }
+
+        /**
+         * Sends history pages until the subscriber has caught up, or a reset if the events it still needed
+         * were evicted from the history in the meantime.
+         */
+        private void replayHistory() throws IOException {
+            while (!closed) {
+                List<FeedEvent> page = nextReplayPage(this);
+                if (page == null) {
+                    emitter.send(RESET.get());
+                    return;
+                }
+                if (page.isEmpty()) {
+                    return;
+                }
+                for (FeedEvent event : page) {
+                    emitter.send(event.get());
+                    replayedUpTo = event.sequence();
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.service;
+
+import org.example.dto.UserChangeDTO;
+import org.example.entity.User;
+
+/**
+ * Application event published by {@link UserService} for every insert, update or deletion of a user.
+ * Listeners that must only see committed changes use {@code @TransactionalEventListener}.
+ *
+ * @param change the change, in the same form as delta sync reports it
+ */
+public record UserChangedEvent(UserChangeDTO change) {
+
+    /**
+     * Creates the event for an inserted or updated user from its current state.
+     *
+     * @param user the saved user
+     * @return the event
+     */
+    static UserChangedEvent upsert(User user) {
+        return new UserChangedEvent(new UserChangeDTO(user.getId(), user.getName(), user.getEmail(), user.getUpdatedAt()));
+    }
+}
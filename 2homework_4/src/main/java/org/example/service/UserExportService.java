@@ -0,0 +1,79 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.dto.UserResponseDTO;
+import org.example.entity.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service layer component responsible for bulk export of users as newline-delimited JSON (NDJSON).
+ * Rows are read through a server-side cursor and written one by one, so memory use does not depend on the table size.
+ */
+@Service
+public class UserExportService {
+
+    /**
+     * Number of exported rows after which the output is flushed.
+     */
+    static final int FLUSH_INTERVAL = 500;
+
+    /**
+     * Repository used for streaming user data from the database.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * JSON mapper used for writing single rows.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Default constructor injecting dependencies.
+     *
+     * @param userRepository injected repository for user data access
+     * @param objectMapper   injected JSON mapper
+     */
+    @Autowired
+    public UserExportService(UserRepository userRepository, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes all users to the given stream, one JSON object per line.
+     * The stream itself is left open.
+     *
+     * @param out target output stream, typically the HTTP response body
+     * @return number of exported users
+     * @throws IOException if writing to the output stream fails
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(UserResponseDTO.class);
+        long count = 0;
+
+        try (Stream<UserResponseDTO> users = userRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<UserResponseDTO> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a user with the requested id or email does not exist.
+ * Translated to HTTP 404 (NOT FOUND).
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UserNotFoundException extends RuntimeException {
+
+    /**
+     * Creates the exception for the given user id.
+     *
+     * @param id unique identifier of the missing user
+     */
+    public UserNotFoundException(Long id) {
+        super("User with id " + id + " is not found!");
+    }
+
+    /**
+     * Creates the exception for the given email address.
+     *
+     * @param email email address of the missing user
+     */
+    public UserNotFoundException(String email) {
+        super("User with email " + email + " is not found!");
+    }
+}
@@ -1,14 +1,42 @@
 package org.example.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.example.entity.User;
 import org.example.entity.UserRepository;
+import org.example.entity.UserTombstone;
+import org.example.entity.UserTombstoneRepository;
+import org.example.mapper.UserMapper;
+import org.example.metrics.MetricsConfig;
+import org.example.dto.UserBatchResultDTO;
+import org.example.dto.UserChangeDTO;
+import org.example.dto.UserChangesDTO;
+import org.example.dto.UserCreationStatusDTO;
+import org.example.dto.UserLookupDTO;
+import org.example.dto.UserPageDTO;
 import org.example.dto.UserRequestDTO;
 import org.example.dto.UserResponseDTO;
+import org.example.dto.UserSearchCriteriaDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service layer component responsible for business logic concerning user-related operations.
@@ -16,28 +44,111 @@ import java.util.List;
  */
 @Service
 @Transactional
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class UserService {
 
+    /**
+     * Page size used when the client does not specify one.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Upper bound for the page size to keep single responses small.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Number of users checked with one IN query and flushed as one group of JDBC batches during bulk creation.
+     */
+    static final int BATCH_CHUNK_SIZE = 1000;
+
+    /**
+     * Upper bound for the number of ids in one multi-get request.
+     */
+    public static final int MAX_LOOKUP_IDS = 1000;
+
+    /**
+     * Number of ids bound to one IN query during a multi-get, well below the parameter limits of common databases.
+     */
+    static final int LOOKUP_CHUNK_SIZE = 500;
+
+    /**
+     * Orders changes the way watermarks advance: by time, then by user id.
+     */
+    private static final Comparator<UserChangeDTO> CHANGE_ORDER =
+            Comparator.comparing(UserChangeDTO::getChangedAt).thenComparing(UserChangeDTO::getId);
+
     /**
      * Repository used for accessing user data in the database.
      */
     private final UserRepository userRepository;
 
+    /**
+     * Repository used for recording and reading deletions for delta sync.
+     */
+    private final UserTombstoneRepository userTombstoneRepository;
+
     /**
      * Mapper tool used for converting between DTO and entity classes.
      */
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
+
+    /**
+     * Coalesces concurrent lookups of the same user id into one database call.
+     */
+    private final SingleFlight<Long, Optional<UserResponseDTO>> lookupsById;
+
+    /**
+     * Coalesces concurrent lookups of the same email address into one database call.
+     */
+    private final SingleFlight<String, Optional<UserResponseDTO>> lookupsByEmail;
+
+    /**
+     * Publisher of {@link UserChangedEvent}s for listeners such as the {@link UserChangeFeed}.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Queue taking user creations in write-behind mode.
+     */
+    private final UserWriteBehindQueue writeBehindQueue;
+
+    /**
+     * Start of the oldest write transaction in progress, up to which delta sync reports changes.
+     */
+    private final WriteTransactionHorizon writeTransactionHorizon;
+
+    /**
+     * Retention of deletion records, which bounds how old a delta-sync watermark may be.
+     */
+    private final UserTombstonePurge userTombstonePurge;
 
     /**
      * Default constructor injecting dependencies for repository and mapper.
      *
-     * @param userRepository injected repository for user data access
-     * @param modelMapper    injected mapper for conversion purposes
+     * @param userRepository          injected repository for user data access
+     * @param userTombstoneRepository injected repository for deletion records
+     * @param userMapper              injected mapper for conversion purposes
+     * @param meterRegistry           injected registry for the lookup coalescing counters
+     * @param eventPublisher          injected publisher for user change events
+     * @param writeBehindQueue        injected queue for user creations in write-behind mode
+     * @param writeTransactionHorizon injected tracker of the write transactions in progress
+     * @param userTombstonePurge      injected retention of deletion records
      */
     @Autowired
-    public UserService(UserRepository userRepository, ModelMapper modelMapper) {
+    public UserService(UserRepository userRepository, UserTombstoneRepository userTombstoneRepository,
+                       UserMapper userMapper, MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher,
+                       UserWriteBehindQueue writeBehindQueue, WriteTransactionHorizon writeTransactionHorizon,
+                       UserTombstonePurge userTombstonePurge) {
         this.userRepository = userRepository;
-        this.modelMapper = modelMapper;
+        this.userTombstoneRepository = userTombstoneRepository;
+        this.userMapper = userMapper;
+        this.eventPublisher = eventPublisher;
+        this.writeBehindQueue = writeBehindQueue;
+        this.writeTransactionHorizon = writeTransactionHorizon;
+        this.userTombstonePurge = userTombstonePurge;
+        this.lookupsById = new SingleFlight<>("id", meterRegistry, user -> user.map(UserService::copyOf));
+        this.lookupsByEmail = new SingleFlight<>("email", meterRegistry, user -> user.map(UserService::copyOf));
     }
 
     /**
@@ -48,62 +159,358 @@ public class UserService {
      * @throws EmailAlreadyExistsException if the email already exists in the database
      */
     public UserResponseDTO createUser(UserRequestDTO requestDto) {
-        if (userRepository.existsByEmail(requestDto.getEmail())) {
+        String email = User.normalizeEmail(requestDto.getEmail());
+        if (userRepository.existsByEmail(email)) {
             throw new EmailAlreadyExistsException(requestDto.getEmail());
         }
 
-        User user = modelMapper.map(requestDto, User.class);
+        User user = userMapper.toEntity(requestDto);
         User savedUser = userRepository.save(user);
-        return modelMapper.map(savedUser, UserResponseDTO.class);
+        publishUpsert(savedUser);
+        afterCompletion(() -> lookupsByEmail.forget(email));
+        return userMapper.toResponseDto(savedUser);
+    }
+
+    /**
+     * Returns whether user creations are accepted asynchronously through {@link #submitUser}
+     * instead of {@link #createUser}.
+     *
+     * @return true if write-behind mode is enabled
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public boolean isWriteBehind() {
+        return writeBehindQueue.isEnabled();
+    }
+
+    /**
+     * Accepts a user creation in write-behind mode; the user is inserted with a later batch.
+     * Uniqueness of the email address is checked against pending creations now and against the database on insert.
+     *
+     * @param requestDto contains the details of the new user
+     * @return the pending state with the ticket to query it by
+     * @throws EmailAlreadyExistsException   if a creation with the same email is already pending
+     * @throws WriteBehindQueueFullException if too many creations are pending
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UserCreationStatusDTO submitUser(UserRequestDTO requestDto) {
+        return writeBehindQueue.submit(requestDto);
+    }
+
+    /**
+     * Retrieves the state of a user creation accepted in write-behind mode.
+     *
+     * @param ticket the ticket returned by {@link #submitUser}
+     * @return the state of the creation, or empty if the ticket is unknown or expired
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<UserCreationStatusDTO> getCreationStatus(String ticket) {
+        return writeBehindQueue.getStatus(ticket);
+    }
+
+    /**
+     * Creates many users at once.
+     * Email uniqueness is checked with one IN query per chunk and new users are inserted through JDBC batching.
+     * Items whose email already exists, in the database or earlier in the same request, are reported and skipped.
+     *
+     * @param requestDtos details of the new users
+     * @return per-item results in request order
+     */
+    public List<UserBatchResultDTO> createUsers(List<UserRequestDTO> requestDtos) {
+        List<UserBatchResultDTO> results = new ArrayList<>(requestDtos.size());
+        Set<String> seenEmails = new HashSet<>();
+
+        for (int from = 0; from < requestDtos.size(); from += BATCH_CHUNK_SIZE) {
+            List<UserRequestDTO> chunk = requestDtos.subList(from, Math.min(from + BATCH_CHUNK_SIZE, requestDtos.size()));
+            Set<String> existingEmails = userRepository.findExistingEmails(
+                    chunk.stream().map(requestDto -> User.normalizeEmail(requestDto.getEmail())).toList());
+
+            List<User> toSave = new ArrayList<>(chunk.size());
+            List<Integer> savedIndexes = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                UserRequestDTO requestDto = chunk.get(i);
+                String email = User.normalizeEmail(requestDto.getEmail());
+                if (existingEmails.contains(email) || !seenEmails.add(email)) {
+                    results.add(new UserBatchResultDTO(from + i, UserBatchResultDTO.Status.DUPLICATE_EMAIL,
+                            null, requestDto.getEmail()));
+                    continue;
+                }
+                toSave.add(userMapper.toEntity(requestDto));
+                savedIndexes.add(from + i);
+                results.add(null);
+            }
+
+            List<User> savedUsers = userRepository.saveAllAndFlush(toSave);
+            for (int i = 0; i < savedUsers.size(); i++) {
+                User savedUser = savedUsers.get(i);
+                publishUpsert(savedUser);
+                results.set(savedIndexes.get(i), new UserBatchResultDTO(savedIndexes.get(i),
+                        UserBatchResultDTO.Status.CREATED, savedUser.getId(), savedUser.getEmail()));
+            }
+        }
+        afterCompletion(lookupsByEmail::forgetAll);
+        return results;
     }
 
     /**
      * Retrieves a user by their unique identifier.
+     * Concurrent calls for the same id share one database call and its result; only that call opens a transaction.
      *
      * @param id unique identifier of the user to retrieve
      * @return user representation as UserResponseDTO
      * @throws UserNotFoundException if the user with the given ID does not exist
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserResponseDTO getUserById(Long id) {
-        return userRepository.findById(id)
-                .map(user -> modelMapper.map(user, UserResponseDTO.class))
+        return lookupsById.execute(id, () -> userRepository.findById(id).map(userMapper::toResponseDto))
                 .orElseThrow(() -> new UserNotFoundException(id));
     }
 
     /**
-     * Updates an existing user based on the provided DTO.
+     * Retrieves a user by their email address, ignoring case.
+     * Concurrent calls for the same address share one database call and its result.
+     *
+     * @param email email address of the user to retrieve
+     * @return user representation as UserResponseDTO
+     * @throws UserNotFoundException if no user has the given email address
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UserResponseDTO getUserByEmail(String email) {
+        String normalizedEmail = User.normalizeEmail(email);
+        return lookupsByEmail.execute(normalizedEmail,
+                        () -> userRepository.findByEmail(normalizedEmail).map(userMapper::toResponseDto))
+                .orElseThrow(() -> new UserNotFoundException(email));
+    }
+
+    /**
+     * Retrieves many users by their ids with one IN query per {@value #LOOKUP_CHUNK_SIZE} distinct ids.
+     * Duplicate ids are resolved once.
+     *
+     * @param ids identifiers of the users to retrieve, at most {@value #MAX_LOOKUP_IDS}
+     * @return found users in request order, and the ids that do not exist
+     */
+    @Transactional(readOnly = true)
+    public UserLookupDTO getUsersByIds(List<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, UserResponseDTO> found = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinctIds.size()));
+            userRepository.findAllByIds(chunk).forEach(user -> found.put(user.getId(), user));
+        }
+
+        List<UserResponseDTO> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            UserResponseDTO user = found.get(id);
+            if (user != null) {
+                items.add(user);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new UserLookupDTO(items, missingIds);
+    }
+
+    /**
+     * Updates an existing user based on the provided DTO, regardless of its current version.
      *
      * @param id          unique identifier of the user to update
      * @param requestDto  updated user details
-     * @return updated user representation as UserResponseDTO
+     * @return updated user representation as UserResponseDTO, without a known version
      * @throws UserNotFoundException if the user with the given id does not exist
      */
     public UserResponseDTO updateUser(Long id, UserRequestDTO requestDto) {
-        return userRepository.findById(id)
-                .map(user -> {
-                    modelMapper.map(requestDto, user);
-                    User updatedUser = userRepository.save(user);
-                    return modelMapper.map(updatedUser, UserResponseDTO.class);
-                })
-                .orElseThrow(() -> new UserNotFoundException(id));
+        return updateUser(id, requestDto, null);
+    }
+
+    /**
+     * Updates an existing user based on the provided DTO.
+     * Issues a single UPDATE statement and uses the affected-row count to detect a missing user or a stale version.
+     * The new email address must not belong to another user; a concurrent update racing for the same address
+     * is rejected by the unique constraint and reported the same way.
+     *
+     * @param id              unique identifier of the user to update
+     * @param requestDto      updated user details
+     * @param expectedVersion version the client has last seen, or null for an unconditional update
+     * @return updated user representation as UserResponseDTO, with its new version if it is known
+     * @throws UserNotFoundException    if the user with the given id does not exist
+     * @throws VersionConflictException if the user exists but its version differs from the expected one
+     * @throws EmailAlreadyExistsException if another user already has the new email address
+     */
+    public UserResponseDTO updateUser(Long id, UserRequestDTO requestDto, Long expectedVersion) {
+        String email = User.normalizeEmail(requestDto.getEmail());
+        if (userRepository.existsByEmailAndIdNot(email, id)) {
+            throw new EmailAlreadyExistsException(email);
+        }
+
+        Instant now = Instant.now();
+        int updated;
+        try {
+            updated = expectedVersion == null
+                    ? userRepository.updateDetails(id, requestDto.getName(), email, requestDto.getAge(), now)
+                    : userRepository.updateDetailsIfVersion(id, requestDto.getName(), email, requestDto.getAge(), now,
+                            expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            if (EmailAlreadyExistsException.isEmailConflict(e)) {
+                throw new EmailAlreadyExistsException(email);
+            }
+            throw e;
+        }
+
+        if (updated == 0) {
+            if (expectedVersion != null && userRepository.existsById(id)) {
+                throw new VersionConflictException(id, expectedVersion);
+            }
+            throw new UserNotFoundException(id);
+        }
+
+        eventPublisher.publishEvent(new UserChangedEvent(new UserChangeDTO(id, requestDto.getName(), email, now)));
+        forgetLookups(id);
+
+        UserResponseDTO responseDto = new UserResponseDTO();
+        responseDto.setId(id);
+        responseDto.setName(requestDto.getName());
+        responseDto.setEmail(email);
+        responseDto.setVersion(expectedVersion == null ? null : expectedVersion + 1);
+        return responseDto;
     }
 
     /**
-     * Deletes a user by their unique identifier.
+     * Deletes a user by their unique identifier with a single DELETE statement
+     * and records a tombstone, so that delta sync can report the deletion.
      *
      * @param id unique identifier of the user to delete
+     * @throws UserNotFoundException if the user with the given id does not exist
      */
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        if (userRepository.deleteUserById(id) == 0) {
+            throw new UserNotFoundException(id);
+        }
+        Instant now = Instant.now();
+        userTombstoneRepository.save(new UserTombstone(id, now));
+        eventPublisher.publishEvent(new UserChangedEvent(new UserChangeDTO(id, now)));
+        forgetLookups(id);
+    }
+
+    /**
+     * Retrieves the users inserted, updated or deleted after a watermark, for replicas that sync incrementally.
+     * Both sources are read with a keyset range scan on their change-time index, so the cost depends on
+     * the number of changes rather than on the size of the table. Changes stamped after the start of the
+     * oldest write transaction in progress are left for the next call, as that transaction may still commit
+     * a change with an earlier stamp.
+     *
+     * @param since watermark returned by the previous call, or null to start from the beginning
+     * @param limit requested page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @return changes in the order they happened, the watermark to continue from and whether more are available
+     * @throws InvalidWatermarkException if the watermark is malformed
+     * @throws WatermarkExpiredException if the watermark is older than the retention of deletion records
+     */
+    @Transactional(readOnly = true)
+    public UserChangesDTO getChanges(String since, Integer limit) {
+        int pageSize = pageSize(limit);
+        ChangeWatermark from = ChangeWatermark.parse(since);
+        userTombstonePurge.checkRetained(from);
+        Instant until = writeTransactionHorizon.horizon();
+
+        List<UserChangeDTO> changes = new ArrayList<>(userRepository.findChanges(
+                from.changedAt(), from.id(), until, Limit.of(pageSize + 1)));
+        changes.addAll(userTombstoneRepository.findChanges(
+                from.changedAt(), from.id(), until, Limit.of(pageSize + 1)));
+        changes.sort(CHANGE_ORDER);
+
+        boolean hasMore = changes.size() > pageSize;
+        List<UserChangeDTO> page = hasMore ? changes.subList(0, pageSize) : changes;
+        ChangeWatermark next = page.isEmpty() ? from : ChangeWatermark.after(page.get(page.size() - 1));
+        return new UserChangesDTO(page, next.toString(), hasMore);
+    }
+
+    /**
+     * Retrieves one keyset-paginated page of users.
+     * Fetches one extra row to find out whether another page exists, so the table is never scanned with OFFSET.
+     *
+     * @param cursor id of the last user seen by the client, or null to start from the beginning
+     * @param limit  requested page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @return page of users together with the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public UserPageDTO getUsersPage(Long cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        long afterId = cursor == null ? 0L : cursor;
+
+        List<UserResponseDTO> users = userRepository.findPage(afterId, Limit.of(pageSize + 1));
+        return toPage(users, pageSize);
     }
 
     /**
-     * Retrieves all users from the database.
+     * Searches users by the given filters, page by page using keyset pagination.
      *
-     * @return list of all users
+     * @param criteria filters to apply, unset filters are ignored
+     * @param cursor   id of the last user seen by the client, or null to start from the beginning
+     * @param limit    requested page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @return page of matching users together with the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public UserPageDTO searchUsers(UserSearchCriteriaDTO criteria, Long cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        long afterId = cursor == null ? 0L : cursor;
+
+        List<UserResponseDTO> users = userRepository.search(criteria, afterId, pageSize + 1);
+        return toPage(users, pageSize);
+    }
+
+    private static int pageSize(Integer limit) {
+        return limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Publishes the current state of an inserted user; listeners receive it once the transaction commits.
+     */
+    private void publishUpsert(User user) {
+        eventPublisher.publishEvent(UserChangedEvent.upsert(user));
+    }
+
+    /**
+     * Evicts a written user from the second-level cache and stops lookups in flight for it from being joined
+     * once the write is visible. The old email address is not known here, so all email lookups in flight are detached.
+     */
+    private void forgetLookups(Long id) {
+        afterCompletion(() -> {
+            userRepository.evictFromCache(id);
+            lookupsById.forget(id);
+            lookupsByEmail.forgetAll();
+        });
+    }
+
+    /**
+     * Runs an action after the current transaction completes, or right away outside a transaction.
+     * Detaching lookups before the commit would let a new lookup read the old state and be joined afterwards.
+     */
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Copies a looked-up user for a caller that shares another caller's lookup.
+     */
+    private static UserResponseDTO copyOf(UserResponseDTO user) {
+        return new UserResponseDTO(user.getId(), user.getName(), user.getEmail(), user.getVersion());
+    }
+
+    /**
+     * Builds a page out of up to {@code pageSize + 1} users; the extra user only signals that another page exists.
      */
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    private static UserPageDTO toPage(List<UserResponseDTO> users, int pageSize) {
+        boolean hasMore = users.size() > pageSize;
+        List<UserResponseDTO> items = hasMore ? users.subList(0, pageSize) : users;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new UserPageDTO(items, nextCursor);
     }
 }
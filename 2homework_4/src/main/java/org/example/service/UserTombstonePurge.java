@@ -0,0 +1,75 @@
+package org.example.service;
+
+import org.example.entity.UserTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps deletion records for a limited time. Tombstones older than the retention are purged periodically,
+ * and delta sync refuses watermarks from before the retention window, as deletions since then may be gone.
+ */
+@Component
+public class UserTombstonePurge {
+
+    private static final Logger log = LoggerFactory.getLogger(UserTombstonePurge.class);
+
+    private final UserTombstoneRepository userTombstoneRepository;
+
+    private final Duration retention;
+
+    private final Clock clock;
+
+    /**
+     * @param userTombstoneRepository repository of the deletion records
+     * @param retention               how long deletion records are kept
+     */
+    @Autowired
+    public UserTombstonePurge(UserTombstoneRepository userTombstoneRepository,
+                              @Value("${users.changes.tombstone-retention:30d}") Duration retention) {
+        this(userTombstoneRepository, retention, Clock.systemUTC());
+    }
+
+    UserTombstonePurge(UserTombstoneRepository userTombstoneRepository, Duration retention, Clock clock) {
+        this.userTombstoneRepository = userTombstoneRepository;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    /**
+     * Rejects a watermark whose changes may include purged deletions.
+     *
+     * @param watermark the watermark a client syncs from
+     * @throws WatermarkExpiredException if it is older than the retention
+     */
+    void checkRetained(ChangeWatermark watermark) {
+        if (!watermark.equals(ChangeWatermark.INITIAL) && watermark.changedAt().isBefore(retainedSince())) {
+            throw new WatermarkExpiredException(watermark.toString());
+        }
+    }
+
+    /**
+     * Deletes the tombstones older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${users.changes.tombstone-purge-interval:PT1H}",
+            initialDelayString = "${users.changes.tombstone-purge-interval:PT1H}")
+    @Transactional
+    public void purge() {
+        int purged = userTombstoneRepository.deleteDeletedBefore(retainedSince());
+        if (purged > 0) {
+            log.info("Purged {} user tombstones older than {}", purged, retention);
+        }
+    }
+
+    private Instant retainedSince() {
+        return clock.instant().minus(retention);
+    }
+}
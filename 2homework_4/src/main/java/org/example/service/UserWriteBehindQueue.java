@@ -0,0 +1,446 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.dto.UserCreationStatusDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.entity.User;
+import org.example.entity.UserRepository;
+import org.example.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind mode of user creation: requests are accepted at once and inserted in batches in the background.
+ * <p>
+ * {@link #submit} only reserves the email address in memory, so concurrent requests for the same address are
+ * rejected right away, and queues the user; a single flusher thread inserts the queued users with one IN query
+ * for existing addresses and one group of JDBC batches per transaction. A batch is flushed when
+ * {@code batch-size} users are queued or {@code max-delay} has passed. The outcome is kept for the last
+ * {@value #RETAINED_RESULTS} creations and can be queried by ticket; if a batch fails, its users are retried
+ * one by one so that a single bad row does not fail the others.
+ * <p>
+ * The queue is a {@link LinkedBlockingQueue} the flusher waits on, bounded by a counter; when {@code capacity}
+ * creations are pending, further ones are rejected with 503 instead of piling up in memory. With
+ * {@code journal-dir} set, every accepted creation is journaled (see {@link WriteBehindJournal}) before it is
+ * acknowledged and queued again on the next start if the process dies before flushing it; {@code journal-fsync}
+ * decides whether the acknowledgement also waits for the storage device, trading throughput for surviving a power
+ * loss. A replayed creation whose email already exists was flushed before the journal entry could be completed,
+ * so it finishes as created with the existing user.
+ * <p>
+ * The journal is replayed and the flusher started when the application context starts, once all event listeners
+ * are registered, and before the web server accepts requests; the queue is stopped after the web server.
+ * Stopping takes the write side of a lock that every submission holds the read side of, so a creation is either
+ * rejected or queued before the flusher drains the queue for the last time.
+ * <p>
+ * Configured through the {@code users.write-behind.*} properties; disabled by default, in which case no thread
+ * is started and {@link UserService#createUser} inserts synchronously.
+ */
+@Component
+public class UserWriteBehindQueue implements SmartLifecycle {
+
+    /**
+     * Number of finished creations whose outcome is kept for status queries.
+     */
+    static final int RETAINED_RESULTS = 10_000;
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Lifecycle phase below the web server's, so the queue runs whenever requests are served.
+     */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration maxDelay;
+
+    /**
+     * Journal of the pending creations, or null if they are kept in memory only.
+     */
+    private final WriteBehindJournal journal;
+
+    private final BlockingQueue<PendingUser> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * Read side held by submissions while they queue, write side taken to stop accepting them.
+     */
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+
+    /**
+     * Number of creations queued or being flushed; bounds the queue.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Set<String> reservedEmails = ConcurrentHashMap.newKeySet();
+    private final Map<String, UserCreationStatusDTO> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Tickets of finished creations, oldest first; only touched by the flusher thread.
+     */
+    private final Deque<String> finished = new ArrayDeque<>();
+
+    private final Counter rejected;
+    private Thread flusher;
+    private volatile boolean running;
+
+    /**
+     * Creates the queue; the journal is replayed and the flusher started by {@link #start}.
+     *
+     * @param userRepository     injected repository the users are inserted through
+     * @param userMapper         injected mapper for conversion purposes
+     * @param transactionManager injected transaction manager for the flush transactions
+     * @param eventPublisher     injected publisher for user change events
+     * @param meterRegistry      injected registry for the {@code user.writebehind.*} metrics
+     * @param enabled            whether write-behind mode is used
+     * @param capacity           maximum number of pending creations
+     * @param batchSize          maximum number of users inserted per transaction
+     * @param maxDelay           longest time a creation waits for a batch to fill up
+     * @param journalDirectory   directory of the journal, or empty to keep pending creations in memory only
+     * @param journalFsync       whether every journal entry is forced to the storage device before acknowledging
+     */
+    public UserWriteBehindQueue(UserRepository userRepository, UserMapper userMapper,
+                                PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${users.write-behind.enabled:false}") boolean enabled,
+                                @Value("${users.write-behind.capacity:10000}") int capacity,
+                                @Value("${users.write-behind.batch-size:500}") int batchSize,
+                                @Value("${users.write-behind.max-delay:50ms}") Duration maxDelay,
+                                @Value("${users.write-behind.journal-dir:}") String journalDirectory,
+                                @Value("${users.write-behind.journal-fsync:true}") boolean journalFsync) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.journal = enabled && !journalDirectory.isBlank()
+                ? new WriteBehindJournal(Path.of(journalDirectory), journalFsync) : null;
+        Gauge.builder("user.writebehind.pending", pending, AtomicInteger::get).register(meterRegistry);
+        this.rejected = Counter.builder("user.writebehind.rejected").register(meterRegistry);
+    }
+
+    /**
+     * Replays the journal and starts the flusher thread if write-behind mode is enabled.
+     * Replayed creations publish their change events, so this must not happen before the listeners are registered.
+     */
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        recover();
+        running = true;
+        flusher = new Thread(this::flushUntilStopped, "user-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Queues the creations a previous run journaled but did not flush; they may exceed the capacity.
+     */
+    private void recover() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            for (WriteBehindJournal.Entry entry : journal.open()) {
+                String email = User.normalizeEmail(entry.request().getEmail());
+                reservedEmails.add(email);
+                pending.incrementAndGet();
+                statuses.put(entry.ticket(), new UserCreationStatusDTO(entry.ticket(),
+                        UserCreationStatusDTO.Status.PENDING, null, entry.request().getEmail(), null));
+                queue.offer(new PendingUser(entry.ticket(), entry.request(), email, entry.segment(), true));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the write-behind journal", e);
+        }
+    }
+
+    /**
+     * Returns whether user creations are queued instead of inserted synchronously.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts a user creation for the next batch.
+     *
+     * @param request details of the new user
+     * @return the pending state, with the ticket to query it by
+     * @throws EmailAlreadyExistsException   if a creation with the same email is already pending
+     * @throws WriteBehindQueueFullException if too many creations are pending or the queue is stopped
+     * @throws UncheckedIOException          if the creation could not be journaled
+     */
+    public UserCreationStatusDTO submit(UserRequestDTO request) {
+        acceptLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new WriteBehindQueueFullException(capacity);
+            }
+            return accept(request);
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    private UserCreationStatusDTO accept(UserRequestDTO request) {
+        String email = User.normalizeEmail(request.getEmail());
+        if (!reservedEmails.add(email)) {
+            throw new EmailAlreadyExistsException(request.getEmail());
+        }
+        if (!tryAcquireSlot()) {
+            reservedEmails.remove(email);
+            rejected.increment();
+            throw new WriteBehindQueueFullException(capacity);
+        }
+
+        String ticket = UUID.randomUUID().toString();
+        WriteBehindJournal.Segment segment = null;
+        if (journal != null) {
+            try {
+                segment = journal.append(ticket, request);
+            } catch (IOException e) {
+                pending.decrementAndGet();
+                reservedEmails.remove(email);
+                throw new UncheckedIOException("Could not journal the user creation", e);
+            }
+        }
+
+        UserCreationStatusDTO status = new UserCreationStatusDTO(ticket, UserCreationStatusDTO.Status.PENDING,
+                null, request.getEmail(), null);
+        statuses.put(ticket, status);
+        queue.offer(new PendingUser(ticket, request, email, segment, false));
+        return status;
+    }
+
+    private boolean tryAcquireSlot() {
+        int current;
+        do {
+            current = pending.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!pending.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Returns the state of an accepted creation.
+     *
+     * @param ticket the ticket returned by {@link #submit}
+     * @return the state, or empty if the ticket is unknown or its outcome no longer retained
+     */
+    public Optional<UserCreationStatusDTO> getStatus(String ticket) {
+        return Optional.ofNullable(statuses.get(ticket));
+    }
+
+    /**
+     * Flushes whenever a batch is full or the delay since its first creation has passed;
+     * after a stop, flushes what is left without waiting and exits.
+     */
+    private void flushUntilStopped() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<PendingUser> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                stopAccepting();
+            }
+        }
+    }
+
+    /**
+     * Waits up to the delay for a first creation, then for the batch to fill up until the delay since it has passed.
+     */
+    private List<PendingUser> nextBatch() throws InterruptedException {
+        List<PendingUser> batch = new ArrayList<>();
+        PendingUser user = running ? queue.poll(maxDelay.toNanos(), TimeUnit.NANOSECONDS) : queue.poll();
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (user != null) {
+            batch.add(user);
+            if (batch.size() == batchSize) {
+                break;
+            }
+            long remaining = deadline - System.nanoTime();
+            user = running && remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+        }
+        return batch;
+    }
+
+    /**
+     * Inserts a batch in one transaction, or each user on its own if that fails.
+     * Errors are caught as well, so every creation taken from the queue is finished and releases its reservation.
+     */
+    private void flush(List<PendingUser> batch) {
+        List<UserCreationStatusDTO> results;
+        try {
+            results = transactionTemplate.execute(status -> insert(batch));
+        } catch (Throwable e) {
+            if (batch.size() > 1) {
+                batch.forEach(user -> flush(List.of(user)));
+                return;
+            }
+            PendingUser user = batch.get(0);
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            results = List.of(new UserCreationStatusDTO(user.ticket(), UserCreationStatusDTO.Status.FAILED,
+                    null, user.request().getEmail(), reason));
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            finish(batch.get(i), results.get(i));
+        }
+    }
+
+    private List<UserCreationStatusDTO> insert(List<PendingUser> batch) {
+        Set<String> existingEmails = userRepository.findExistingEmails(batch.stream().map(PendingUser::email).toList());
+        List<UserCreationStatusDTO> results = new ArrayList<>(batch.size());
+        List<User> toSave = new ArrayList<>(batch.size());
+        List<Integer> savedIndexes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingUser user = batch.get(i);
+            if (existingEmails.contains(user.email())) {
+                results.add(user.recovered() ? alreadyCreated(user) : new UserCreationStatusDTO(user.ticket(),
+                        UserCreationStatusDTO.Status.FAILED, null, user.request().getEmail(),
+                        "User with email " + user.request().getEmail() + " already exists!"));
+                continue;
+            }
+            toSave.add(userMapper.toEntity(user.request()));
+            savedIndexes.add(i);
+            results.add(null);
+        }
+
+        List<User> savedUsers = toSave.isEmpty() ? List.of() : userRepository.saveAllAndFlush(toSave);
+        for (int i = 0; i < savedUsers.size(); i++) {
+            User savedUser = savedUsers.get(i);
+            eventPublisher.publishEvent(UserChangedEvent.upsert(savedUser));
+            results.set(savedIndexes.get(i), new UserCreationStatusDTO(batch.get(savedIndexes.get(i)).ticket(),
+                    UserCreationStatusDTO.Status.CREATED, savedUser.getId(), savedUser.getEmail(), null));
+        }
+        return results;
+    }
+
+    /**
+     * Completes a replayed creation that a previous run flushed with the user it created.
+     */
+    private UserCreationStatusDTO alreadyCreated(PendingUser user) {
+        User existing = userRepository.findByEmail(user.email()).orElseThrow();
+        return new UserCreationStatusDTO(user.ticket(), UserCreationStatusDTO.Status.CREATED,
+                existing.getId(), existing.getEmail(), null);
+    }
+
+    /**
+     * Releases the email reservation, the journal entry and the queue slot, then publishes the outcome.
+     */
+    private void finish(PendingUser user, UserCreationStatusDTO result) {
+        reservedEmails.remove(user.email());
+        if (journal != null) {
+            try {
+                journal.completed(user.segment());
+            } catch (IOException e) {
+                // the entry is replayed after a restart and then rejected as a duplicate, which is harmless
+            }
+        }
+        pending.decrementAndGet();
+
+        statuses.put(user.ticket(), result);
+        finished.addLast(user.ticket());
+        if (finished.size() > RETAINED_RESULTS) {
+            statuses.remove(finished.removeFirst());
+        }
+    }
+
+    /**
+     * Stops accepting creations, flushes the pending ones and closes the journal.
+     */
+    @Override
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        stopAccepting();
+        try {
+            flusher.join(SHUTDOWN_TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close the write-behind journal", e);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting creations once the submissions in progress are queued.
+     */
+    private void stopAccepting() {
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * An accepted creation waiting to be flushed.
+     *
+     * @param ticket    identifier of the creation
+     * @param request   details of the new user
+     * @param email     normalized email address, as reserved
+     * @param segment   journal segment of the entry, or null without journal
+     * @param recovered whether the creation was replayed from the journal of a previous run
+     */
+    private record PendingUser(String ticket, UserRequestDTO request, String email, WriteBehindJournal.Segment segment,
+                               boolean recovered) {
+    }
+}
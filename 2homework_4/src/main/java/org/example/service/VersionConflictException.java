@@ -0,0 +1,22 @@
+package org.example.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a conditional update targets a user whose version has changed in the meantime.
+ * Translated to HTTP 412 (PRECONDITION FAILED).
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class VersionConflictException extends RuntimeException {
+
+    /**
+     * Creates the exception for the given user id and expected version.
+     *
+     * @param id              unique identifier of the user
+     * @param expectedVersion version the client expected the user to have
+     */
+    public VersionConflictException(Long id, Long expectedVersion) {
+        super("User with id " + id + " is no longer at version " + expectedVersion + "!");
+    }
+}
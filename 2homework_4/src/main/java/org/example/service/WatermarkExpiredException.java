@@ -0,0 +1,22 @@
+package org.example.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a delta-sync watermark is older than the retention of deletion records,
+ * so deletions since then may have been purged. The client has to sync again from the beginning.
+ * Translated to HTTP 410 (GONE).
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class WatermarkExpiredException extends RuntimeException {
+
+    /**
+     * Creates the exception for the given watermark.
+     *
+     * @param watermark the expired watermark
+     */
+    public WatermarkExpiredException(String watermark) {
+        super("Watermark expired, sync again without one: " + watermark);
+    }
+}
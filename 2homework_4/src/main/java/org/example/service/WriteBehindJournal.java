@@ -0,0 +1,218 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.dto.UserRequestDTO;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the user creations accepted by the {@link UserWriteBehindQueue}, for recovery after a crash.
+ * <p>
+ * Entries are NDJSON lines in segment files {@code users-<n>.journal}. A segment is rolled over once it reaches
+ * {@value #SEGMENT_SIZE} bytes and deleted as soon as all of its entries are flushed; the active segment is
+ * truncated whenever it has no pending entry left. Entries of a flushed user may survive a crash, so replaying
+ * must be idempotent, which the email uniqueness check of the flush makes it. All methods are synchronized.
+ */
+final class WriteBehindJournal implements Closeable {
+
+    /**
+     * Size in bytes after which a new segment is started.
+     */
+    static final long SEGMENT_SIZE = 16L << 20;
+
+    private static final String PREFIX = "users-";
+    private static final String SUFFIX = ".journal";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Path directory;
+    private final boolean fsync;
+    private Segment current;
+    private long nextIndex;
+
+    /**
+     * Creates the journal; {@link #open()} must be called before the first append.
+     *
+     * @param directory directory holding the segment files
+     * @param fsync     whether every append is forced to the storage device before it returns
+     */
+    WriteBehindJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reads the entries left by a previous run and starts a new segment.
+     * Each returned entry has to be passed to {@link #completed} once flushed, like a new one.
+     *
+     * @return the entries not known to be flushed, in journal order
+     */
+    synchronized List<Entry> open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                    && file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : files) {
+            Segment segment = new Segment(file, null);
+            segment.sealed = true;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Entry entry = parse(line, segment);
+                    if (entry != null) {
+                        entries.add(entry);
+                        segment.outstanding++;
+                    }
+                }
+            }
+            if (segment.outstanding == 0) {
+                Files.delete(file);
+            }
+            nextIndex = Math.max(nextIndex, index(file) + 1);
+        }
+        current = newSegment();
+        return entries;
+    }
+
+    /**
+     * Parses one line, or returns null for a line torn by a crash, whose creation was never acknowledged.
+     */
+    private static Entry parse(String line, Segment segment) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode node = JSON.readTree(line);
+            return new Entry(node.get("ticket").asText(), JSON.treeToValue(node.get("user"), UserRequestDTO.class), segment);
+        } catch (JsonProcessingException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Appends an accepted creation.
+     *
+     * @param ticket  identifier of the creation
+     * @param request the user to create
+     * @return the segment holding the entry, to be passed to {@link #completed}
+     * @throws IOException if the entry could not be written; the journal then holds no trace of it
+     */
+    synchronized Segment append(String ticket, UserRequestDTO request) throws IOException {
+        ObjectNode node = JSON.createObjectNode().put("ticket", ticket);
+        node.set("user", JSON.valueToTree(request));
+        ByteBuffer line = ByteBuffer.wrap((JSON.writeValueAsString(node) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        Segment segment = current;
+        try {
+            while (line.hasRemaining()) {
+                segment.channel.write(line);
+            }
+            if (fsync) {
+                segment.channel.force(false);
+            }
+        } catch (IOException e) {
+            // cut off a partial line, so the next entry does not get appended to it
+            segment.channel.truncate(segment.size);
+            throw e;
+        }
+        segment.size += line.capacity();
+        segment.outstanding++;
+        if (segment.size >= SEGMENT_SIZE) {
+            roll();
+        }
+        return segment;
+    }
+
+    /**
+     * Marks an entry as flushed and drops segments that have no pending entry left.
+     *
+     * @param segment the segment returned for the entry
+     */
+    synchronized void completed(Segment segment) throws IOException {
+        segment.outstanding--;
+        if (segment.outstanding > 0) {
+            return;
+        }
+        if (segment.sealed) {
+            Files.deleteIfExists(segment.file);
+        } else if (segment.size > 0) {
+            segment.channel.truncate(0);
+            segment.size = 0;
+        }
+    }
+
+    private void roll() throws IOException {
+        current.channel.close();
+        current.sealed = true;
+        current = newSegment();
+    }
+
+    private Segment newSegment() throws IOException {
+        Path file = directory.resolve(String.format("%s%019d%s", PREFIX, nextIndex++, SUFFIX));
+        return new Segment(file, FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    private static long index(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Closes the active segment; pending entries stay on disk for the next start.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (current != null) {
+            current.channel.close();
+        }
+    }
+
+    /**
+     * A recovered creation.
+     *
+     * @param ticket  identifier of the creation
+     * @param request the user to create
+     * @param segment the segment holding the entry
+     */
+    record Entry(String ticket, UserRequestDTO request, Segment segment) {
+    }
+
+    /**
+     * One segment file with the number of its entries that are not flushed yet; guarded by the journal.
+     */
+    static final class Segment {
+
+        private final Path file;
+        private final FileChannel channel;
+        private long size;
+        private int outstanding;
+        private boolean sealed;
+
+        private Segment(Path file, FileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a user creation cannot be queued because the write-behind queue is full or shutting down.
+ * Translated to HTTP 503 (SERVICE UNAVAILABLE), telling clients to retry later.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteBehindQueueFullException extends RuntimeException {
+
+    /**
+     * Creates the exception for the given queue capacity.
+     *
+     * @param capacity number of user creations the queue holds
+     */
+    public WriteBehindQueueFullException(int capacity) {
+        super("Too many pending user creations (limit " + capacity + "), please retry later!");
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the write transactions in progress and tells from which instant on a change may still be uncommitted.
+ * Change timestamps are taken inside a transaction, after it began, so every change stamped before the start
+ * of the oldest open write transaction is committed or rolled back for good. Delta sync reports changes up to
+ * that instant: a long transaction holds the watermark back for as long as it runs, and nothing is held back
+ * when no write is in progress.
+ * <p>
+ * Spring Boot registers the listener with the transaction manager. Only this application's transactions are seen;
+ * writers outside it, such as the console started without Spring or the reactive application, are not covered.
+ */
+@Component
+public class WriteTransactionHorizon implements TransactionExecutionListener {
+
+    private final ConcurrentHashMap<TransactionExecution, Instant> openWrites = new ConcurrentHashMap<>();
+
+    private final Clock clock;
+
+    /**
+     * Creates the tracker on the UTC system clock, the clock change timestamps are taken from.
+     */
+    public WriteTransactionHorizon() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * @param clock clock to read transaction start times from
+     */
+    WriteTransactionHorizon(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        if (!transaction.isReadOnly()) {
+            openWrites.put(transaction, clock.instant());
+        }
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null) {
+            openWrites.remove(transaction);
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        openWrites.remove(transaction);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        openWrites.remove(transaction);
+    }
+
+    /**
+     * Returns the instant before which all changes are final: the start of the oldest write transaction
+     * in progress, or now if there is none.
+     *
+     * @return the horizon, exclusive
+     */
+    public Instant horizon() {
+        Instant horizon = clock.instant();
+        for (Instant start : openWrites.values()) {
+            if (start.isBefore(horizon)) {
+                horizon = start;
+            }
+        }
+        return horizon;
+    }
+}
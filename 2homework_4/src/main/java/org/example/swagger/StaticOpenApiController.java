@@ -0,0 +1,137 @@
+package org.example.swagger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+import io.swagger.v3.oas.annotations.Hidden;
+
+/**
+ * Serves the OpenAPI document generated at build time (see the "openapi" Maven profile)
+ * when springdoc's runtime generation is switched off with {@code springdoc.api-docs.enabled=false},
+ * which {@link StaticOpenApiEnvironmentPostProcessor} does if the document was packaged.
+ * The document is loaded once; clients get the gzip-compressed variant if they accept it,
+ * and each variant has its own strong ETag.
+ */
+@Hidden
+@RestController
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+public class StaticOpenApiController {
+
+    /**
+     * Location of the generated documents on the classpath.
+     */
+    static final String LOCATION = "openapi/openapi.json";
+
+    private final byte[] document;
+
+    private final byte[] gzipDocument;
+
+    private final String etag;
+
+    private final String gzipEtag;
+
+    /**
+     * Loads the generated documents from the classpath.
+     *
+     * @throws IOException if the documents were not generated during the build
+     */
+    public StaticOpenApiController() throws IOException {
+        this.document = read(LOCATION);
+        this.gzipDocument = read(LOCATION + ".gz");
+        String hash = sha256(document);
+        this.etag = "\"" + hash + "\"";
+        this.gzipEtag = "\"" + hash + "-gzip\"";
+    }
+
+    /**
+     * Returns the pre-generated OpenAPI document.
+     *
+     * @param acceptEncoding Accept-Encoding header of the request.
+     * @param request        Current request, used for evaluating If-None-Match.
+     * @return The document, or 304 if the client already has this version.
+     */
+    @GetMapping(value = "/v3/api-docs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> apiDocs(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                          WebRequest request) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String variantEtag = gzip ? gzipEtag : etag;
+        if (request.checkNotModified(variantEtag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(variantEtag)
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzipDocument);
+        }
+        return response.body(document);
+    }
+
+    /**
+     * Tells whether an Accept-Encoding header allows gzip: listed, or covered by {@code *}, with a q-value above 0.
+     *
+     * @param acceptEncoding the header value, or null if the request has none
+     * @return true if the gzip variant may be sent
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        double quality = gzipQuality != null ? gzipQuality : anyQuality != null ? anyQuality : 0;
+        return quality > 0;
+    }
+
+    private static byte[] read(String location) throws IOException {
+        try (InputStream in = new ClassPathResource(location).getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
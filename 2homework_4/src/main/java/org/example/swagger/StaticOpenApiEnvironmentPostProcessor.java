@@ -0,0 +1,48 @@
+package org.example.swagger;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Map;
+
+/**
+ * Switches springdoc's runtime generation off when {@code users.openapi.static=true} (set by the "prod" profile)
+ * and the build packaged the generated document, so {@link StaticOpenApiController} serves it instead.
+ * If the jar was built without {@code -Popenapi} springdoc stays on and the application starts with the live document.
+ */
+public class StaticOpenApiEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    /**
+     * Property asking for the build-time document.
+     */
+    static final String STATIC_PROPERTY = "users.openapi.static";
+
+    private final Log log;
+
+    /**
+     * @param logFactory factory of loggers that are replayed once logging is initialised
+     */
+    public StaticOpenApiEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(StaticOpenApiEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.getProperty(STATIC_PROPERTY, Boolean.class, false)) {
+            return;
+        }
+        if (!new ClassPathResource(StaticOpenApiController.LOCATION, application.getClassLoader()).exists()) {
+            log.warn(StaticOpenApiController.LOCATION + " is not packaged (build with -Popenapi); "
+                    + "serving the OpenAPI document generated by springdoc at runtime");
+            return;
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource("staticOpenApi", Map.of(
+                "springdoc.api-docs.enabled", "false",
+                "springdoc.swagger-ui.enabled", "false")));
+    }
+}
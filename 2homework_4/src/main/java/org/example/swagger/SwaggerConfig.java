@@ -1,56 +1,50 @@
 package org.example.swagger;
 
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.info.Contact;
+import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.info.License;
+import io.swagger.v3.oas.models.security.SecurityRequirement;
+import io.swagger.v3.oas.models.security.SecurityScheme;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import springfox.documentation.builders.ApiInfoBuilder;
-import springfox.documentation.builders.ParameterBuilder;
-import springfox.documentation.builders.PathSelectors;
-import springfox.documentation.builders.RequestHandlerSelectors;
-import springfox.documentation.schema.ModelRef;
-import springfox.documentation.service.ApiInfo;
-import springfox.documentation.service.Contact;
-import springfox.documentation.service.Parameter;
-import springfox.documentation.spi.DocumentationType;
-import springfox.documentation.spring.web.plugins.Docket;
-import springfox.documentation.swagger2.annotations.EnableSwagger2;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
- * Configuration class for enabling Swagger documentation generation.
- * Defines the base package where controllers reside and custom global parameters.
+ * Configuration class for the OpenAPI documentation generated by springdoc.
+ * Defines the API metadata and the global, optional authorization header.
  */
 @Configuration
-@EnableSwagger2
 public class SwaggerConfig {
 
     /**
-     * Bean that configures Swagger Docket.
-     * Specifies the API type, controller package, path selectors, and API info.
+     * Name of the security scheme describing the authorization header.
+     */
+    private static final String AUTHORIZATION = "Authorization";
+
+    /**
+     * Bean that configures the OpenAPI document.
+     * Controllers are discovered by springdoc itself, so no package has to be specified.
      *
-     * @return a configured Docket instance for Swagger 2 documentation
+     * @return a configured OpenAPI instance
      */
     @Bean
-    public Docket api() {
-        return new Docket(DocumentationType.SWAGGER_2)
-                .select()
-                .apis(RequestHandlerSelectors.basePackage("com.example.controller")) // Specify the package where controllers live
-                .paths(PathSelectors.any()) // Include all paths under the selected package
-                .build()
-                .apiInfo(apiInfo()) // Add metadata about the API
-                .globalOperationParameters(getGlobalParams()) // Define global headers (like authorization)
-                .useDefaultResponseMessages(false); // Disable default HTTP response messages
+    public OpenAPI api() {
+        return new OpenAPI()
+                .info(apiInfo()) // Add metadata about the API
+                .components(new Components().addSecuritySchemes(AUTHORIZATION, authorizationHeader()))
+                .addSecurityItem(new SecurityRequirement().addList(AUTHORIZATION)) // Apply the header to all endpoints
+                .addSecurityItem(new SecurityRequirement()); // Alternative without the header, so it stays optional
     }
 
     /**
      * Builds and returns API Info object.
      * Contains title, description, version, contact information, license, and more.
      *
-     * @return ApiInfo object describing the API
+     * @return Info object describing the API
      */
-    private ApiInfo apiInfo() {
-        return new ApiInfoBuilder()
+    private Info apiInfo() {
+        return new Info()
                 .title("User Registry API") // Title of the API
                 .description("""
                      Simple REST API for registering and managing users.\n\n
@@ -62,31 +56,25 @@ public class SwaggerConfig {
                      - deleteUser
                      """) // Description of the API
                 .version("1.0.0") // Current version of the API
-                .contact(new Contact(
-                        "Developer", // Developer name
-                        "https://github.com/ternopolskaiasa", // Developer website
-                        "serafimaternopolskaya@gmail.com")) // Developer email
-                .license("Apache License Version 2.0") // License type
-                .licenseUrl("http://www.apache.org/licenses/LICENSE-2.0") // License URL
-                .build();
+                .contact(new Contact()
+                        .name("Developer") // Developer name
+                        .url("https://github.com/ternopolskaiasa") // Developer website
+                        .email("serafimaternopolskaya@gmail.com")) // Developer email
+                .license(new License()
+                        .name("Apache License Version 2.0") // License type
+                        .url("http://www.apache.org/licenses/LICENSE-2.0")); // License URL
     }
 
     /**
-     * Generates a list of global parameters applicable across all endpoints.
-     * Used for things like authentication tokens passed in headers.
+     * Describes the optional authorization header accepted by all endpoints.
      *
-     * @return list of global parameters (headers)
+     * @return security scheme of the header
      */
-    private List<Parameter> getGlobalParams() {
-        List<Parameter> params = new ArrayList<>();
-        params.add(new ParameterBuilder()
-                .name("Authorization") // Header parameter name
-                .description("API Key for Authorization") // Short description
-                .modelRef(new ModelRef("string")) // Expected type (string)
-                .parameterType("header") // Parameter type (in header)
-                .required(false) // Optional flag
-                .build());
-
-        return params;
+    private SecurityScheme authorizationHeader() {
+        return new SecurityScheme()
+                .type(SecurityScheme.Type.APIKEY) // API key passed as a header
+                .in(SecurityScheme.In.HEADER) // Parameter type (in header)
+                .name(AUTHORIZATION) // Header parameter name
+                .description("API Key for Authorization"); // Short description
     }
 }
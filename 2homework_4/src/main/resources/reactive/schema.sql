@@ -0,0 +1,22 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL CONSTRAINT uk_users_email UNIQUE,
+    age        INTEGER      NOT NULL,
+    created_at TIMESTAMP    NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    version    BIGINT       NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_tombstones (
+    user_id    BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_users_name ON users (name);
+CREATE INDEX IF NOT EXISTS idx_users_age ON users (age);
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users (created_at);
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON users (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_user_tombstones_deleted_at ON user_tombstones (deleted_at, user_id);
@@ -8,10 +8,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,9 +37,8 @@ class MainTest {
     @Test
     void testHandleGetUserById() throws Exception {
         long id = 123L;
-        User mockUser = new User();
+        User mockUser = new User("Test User", "test@example.com", 30);
         mockUser.setId(id);
-        mockUser.setName("Test User");
 
         when(scanner.nextLine()).thenReturn(String.valueOf(id));
         when(userDAO.getUserById(id)).thenReturn(mockUser);
@@ -48,12 +50,29 @@ class MainTest {
 
     @Test
     void testHandleGetAllUsers() throws Exception {
-        List<User> mockUsers = List.of(new User());
-        when(userDAO.getAllUsers()).thenReturn(mockUsers);
+        List<User> mockUsers = List.of(new User("Test User", "test@example.com", 30));
+        when(userDAO.getUsers(null, Main.LIST_PAGE_SIZE)).thenReturn(mockUsers);
 
         main.handleGetAllUsers();
 
-        verify(userDAO).getAllUsers();
+        verify(userDAO).getUsers(null, Main.LIST_PAGE_SIZE);
+        verify(userDAO, never()).getAllUsers();
+    }
+
+    @Test
+    void testHandleGetAllUsersPagesByLastId() throws Exception {
+        List<User> fullPage = new ArrayList<>();
+        for (long id = 1; id <= Main.LIST_PAGE_SIZE; id++) {
+            User user = new User("User " + id, "user" + id + "@example.com", 30);
+            user.setId(id);
+            fullPage.add(user);
+        }
+        when(userDAO.getUsers(null, Main.LIST_PAGE_SIZE)).thenReturn(fullPage);
+        when(userDAO.getUsers((long) Main.LIST_PAGE_SIZE, Main.LIST_PAGE_SIZE)).thenReturn(List.of());
+
+        main.handleGetAllUsers();
+
+        verify(userDAO).getUsers((long) Main.LIST_PAGE_SIZE, Main.LIST_PAGE_SIZE);
     }
 
     @Test
@@ -76,9 +95,8 @@ class MainTest {
     @Test
     void testHandleUpdateUser() throws Exception {
         long id = 123L;
-        User mockUser = new User();
+        User mockUser = new User("Old Name", "test@example.com", 30);
         mockUser.setId(id);
-        mockUser.setName("Old Name");
 
         when(scanner.nextLine()).thenReturn(String.valueOf(id))
                 .thenReturn("name;New Name");
@@ -110,4 +128,17 @@ class MainTest {
 
         verify(userDAO, never()).updateUser(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIsValidCommand() {
+        assertTrue(Main.isValidCommand(new String[]{"import", "users.csv"}));
+        assertFalse(Main.isValidCommand(new String[]{"import"}));
+        assertFalse(Main.isValidCommand(new String[]{"import", "a.csv", "b.csv"}));
+        assertTrue(Main.isValidCommand(new String[]{"export", "out"}));
+        assertTrue(Main.isValidCommand(new String[]{"export", "out", "CSV"}));
+        assertFalse(Main.isValidCommand(new String[]{"export", "out", "xml"}));
+        assertFalse(Main.isValidCommand(new String[]{"export"}));
+        assertTrue(Main.isValidCommand(new String[]{"migrate-emails"}));
+        assertFalse(Main.isValidCommand(new String[]{"migrate-emails", "now"}));
+    }
+}
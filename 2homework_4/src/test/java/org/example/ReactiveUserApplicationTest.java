@@ -0,0 +1,234 @@
+package org.example;
+
+import org.example.dto.UserPageDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.reactive.ReactiveUserApplication;
+import org.example.reactive.ReactiveUserRepository;
+import org.example.service.EmailAlreadyExistsException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the reactive user API against embedded R2DBC H2.
+ */
+class ReactiveUserApplicationTest {
+    private static ConfigurableApplicationContext context;
+
+    private static WebClient client;
+
+    @BeforeAll
+    static void startContext() {
+        context = ReactiveUserApplication.builder()
+                .run("--server.port=0", "--spring.main.banner-mode=off");
+        client = WebClient.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+
+        DatabaseClient databaseClient = context.getBean(DatabaseClient.class);
+        for (long id = 1; id <= 3; id++) {
+            databaseClient.sql("INSERT INTO users (id, name, email, age, created_at, updated_at, version) "
+                            + "VALUES (:id, :name, :email, 30, :createdAt, CURRENT_TIMESTAMP, 0)")
+                    .bind("id", id)
+                    .bind("name", "User " + id)
+                    .bind("email", "user" + id + "@example.com")
+                    .bind("createdAt", LocalDateTime.now())
+                    .then()
+                    .block();
+        }
+        databaseClient.sql("ALTER SEQUENCE users_seq RESTART WITH 1000").then().block();
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    private static UserRequestDTO request(String name, String email, int age) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName(name);
+        request.setEmail(email);
+        request.setAge(age);
+        return request;
+    }
+
+    private static UserResponseDTO create(UserRequestDTO request) {
+        return client.post().uri("/api/v1/users").bodyValue(request)
+                .retrieve().bodyToMono(UserResponseDTO.class).block();
+    }
+
+    private static Number stored(String column, long id) {
+        return context.getBean(DatabaseClient.class).sql("SELECT " + column + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, Number.class))
+                .one().block();
+    }
+
+    private static OffsetDateTime updatedAt(long id) {
+        return context.getBean(DatabaseClient.class).sql("SELECT updated_at FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, OffsetDateTime.class))
+                .one().block();
+    }
+
+    private static HttpStatus statusOf(Runnable call) {
+        try {
+            call.run();
+        } catch (WebClientResponseException e) {
+            return HttpStatus.valueOf(e.getStatusCode().value());
+        }
+        return null;
+    }
+
+    @Test
+    void testGetUserById() {
+        UserResponseDTO user = client.get().uri("/api/v1/users/1")
+                .retrieve().bodyToMono(UserResponseDTO.class).block();
+
+        assertThat(user.getName()).isEqualTo("User 1");
+    }
+
+    @Test
+    void testGetMissingUserReturnsNotFound() {
+        assertThatThrownBy(() -> client.get().uri("/api/v1/users/999")
+                .retrieve().bodyToMono(UserResponseDTO.class).block())
+                .isInstanceOfSatisfying(WebClientResponseException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void testGetUsersPage() {
+        UserPageDTO page = client.get().uri("/api/v1/users?limit=2")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve().bodyToMono(UserPageDTO.class).block();
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    void testCreateUser() {
+        UserResponseDTO user = create(request("New User", "New.User@Example.com", 41));
+
+        assertThat(user.getId()).isNotNull();
+        assertThat(user.getEmail()).isEqualTo("new.user@example.com");
+        assertThat(stored("age", user.getId()).intValue()).isEqualTo(41);
+    }
+
+    @Test
+    void testCreateUserWithTakenEmailReturnsConflict() {
+        HttpStatus status = statusOf(() -> create(request("Copy", "USER1@example.com", 20)));
+
+        assertThat(status).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void testUpdateUser() {
+        UserResponseDTO user = create(request("Before Update", "before.update@example.com", 20));
+        OffsetDateTime created = updatedAt(user.getId());
+
+        UserResponseDTO updated = client.put().uri("/api/v1/users/" + user.getId())
+                .bodyValue(request("After Update", "after.update@example.com", 21))
+                .retrieve().bodyToMono(UserResponseDTO.class).block();
+
+        assertThat(updated.getName()).isEqualTo("After Update");
+        UserResponseDTO reloaded = client.get().uri("/api/v1/users/" + user.getId())
+                .retrieve().bodyToMono(UserResponseDTO.class).block();
+        assertThat(reloaded.getEmail()).isEqualTo("after.update@example.com");
+        assertThat(stored("version", user.getId()).longValue()).isEqualTo(1L);
+        assertThat(stored("age", user.getId()).intValue()).isEqualTo(21);
+        assertThat(created).isNotNull();
+        assertThat(updatedAt(user.getId())).isAfter(created);
+    }
+
+    @Test
+    void testUpdateUserToTakenEmailReturnsConflict() {
+        UserResponseDTO user = create(request("Taker", "taker@example.com", 20));
+
+        HttpStatus status = statusOf(() -> client.put().uri("/api/v1/users/" + user.getId())
+                .bodyValue(request("Taker", "user2@example.com", 20))
+                .retrieve().toBodilessEntity().block());
+
+        assertThat(status).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(client.get().uri("/api/v1/users/" + user.getId())
+                .retrieve().bodyToMono(UserResponseDTO.class).block().getEmail()).isEqualTo("taker@example.com");
+    }
+
+    @Test
+    void testOnlyTheEmailConstraintIsReportedAsEmailConflict() {
+        ReactiveUserRepository repository = context.getBean(ReactiveUserRepository.class);
+        Throwable emailClash = repository.updateDetails(2L, "User 2", "user1@example.com", 30, Instant.now())
+                .then(Mono.<Throwable>empty()).onErrorResume(Mono::just).block();
+        Throwable idClash = context.getBean(DatabaseClient.class)
+                .sql("INSERT INTO users (id, name, email, age, created_at, updated_at, version) "
+                        + "VALUES (1, 'Other', 'other-id-clash@example.com', 30, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)")
+                .then().then(Mono.<Throwable>empty()).onErrorResume(Mono::just).block();
+
+        assertThat(EmailAlreadyExistsException.isEmailConflict(emailClash)).isTrue();
+        assertThat(EmailAlreadyExistsException.isEmailConflict(idClash)).isFalse();
+    }
+
+    @Test
+    void testUpdateUserKeepingOwnEmail() {
+        UserResponseDTO user = create(request("Same Email", "same.email@example.com", 20));
+
+        HttpStatus status = statusOf(() -> client.put().uri("/api/v1/users/" + user.getId())
+                .bodyValue(request("Renamed", "same.email@example.com", 20))
+                .retrieve().toBodilessEntity().block());
+
+        assertThat(status).isNull();
+    }
+
+    @Test
+    void testUpdateMissingUserReturnsNotFound() {
+        HttpStatus status = statusOf(() -> client.put().uri("/api/v1/users/999")
+                .bodyValue(request("Nobody", "nobody@example.com", 20))
+                .retrieve().toBodilessEntity().block());
+
+        assertThat(status).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testDeleteUser() {
+        UserResponseDTO user = create(request("To Delete", "to.delete@example.com", 20));
+
+        HttpStatus deleted = client.delete().uri("/api/v1/users/" + user.getId())
+                .retrieve().toBodilessEntity().map(response -> HttpStatus.valueOf(response.getStatusCode().value()))
+                .block();
+
+        assertThat(deleted).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(context.getBean(DatabaseClient.class)
+                .sql("SELECT COUNT(*) FROM user_tombstones WHERE user_id = :id AND deleted_at IS NOT NULL")
+                .bind("id", user.getId())
+                .map(row -> row.get(0, Number.class))
+                .one().block().intValue()).isEqualTo(1);
+        assertThat(statusOf(() -> client.get().uri("/api/v1/users/" + user.getId())
+                .retrieve().bodyToMono(UserResponseDTO.class).block())).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(statusOf(() -> client.delete().uri("/api/v1/users/" + user.getId())
+                .retrieve().toBodilessEntity().block())).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testStreamUsers() {
+        List<UserResponseDTO> users = client.get().uri("/api/v1/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve().bodyToFlux(UserResponseDTO.class)
+                .collectList().block();
+
+        assertThat(users).extracting(UserResponseDTO::getId).startsWith(1L, 2L, 3L);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shared bootstrap of the application for tests, benchmarks and load drivers.
+ * Every context is started without banner; later arguments override earlier ones, so callers can replace the defaults.
+ */
+public final class TestApplication {
+
+    private TestApplication() {
+    }
+
+    /**
+     * Returns the argument selecting a private in-memory H2 database, so contexts of different tests do not share data.
+     *
+     * @param name name of the database
+     */
+    public static String database(String name) {
+        return "--spring.datasource.url=jdbc:h2:mem:" + name;
+    }
+
+    /**
+     * Starts the application without the web layer.
+     *
+     * @param arguments program arguments, e.g. {@link #database} or {@code --users.write-behind.enabled=true}
+     */
+    public static ConfigurableApplicationContext start(String... arguments) {
+        return builder().web(WebApplicationType.NONE).run(withDefaults(arguments));
+    }
+
+    /**
+     * Starts the application with the web layer on a random port; see {@link #baseUrl}.
+     *
+     * @param profiles  Spring profiles to activate
+     * @param arguments program arguments
+     */
+    public static ConfigurableApplicationContext startOnRandomPort(String[] profiles, String... arguments) {
+        List<String> all = new ArrayList<>(List.of("--server.port=0"));
+        all.addAll(Arrays.asList(arguments));
+        return builder().profiles(profiles).run(withDefaults(all.toArray(String[]::new)));
+    }
+
+    /**
+     * Starts the application with the web layer on a random port and no extra profile; see {@link #baseUrl}.
+     *
+     * @param arguments program arguments
+     */
+    public static ConfigurableApplicationContext startOnRandomPort(String... arguments) {
+        return startOnRandomPort(new String[0], arguments);
+    }
+
+    /**
+     * Returns the base URL of an application started with {@link #startOnRandomPort}, e.g. {@code http://localhost:1234}.
+     */
+    public static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    private static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(Main.class);
+    }
+
+    private static String[] withDefaults(String[] arguments) {
+        List<String> all = new ArrayList<>(List.of("--spring.main.banner-mode=off"));
+        all.addAll(Arrays.asList(arguments));
+        return all.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import org.example.dto.UserBatchResultDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.entity.User;
+import org.example.entity.UserRepository;
+import org.example.service.EmailAlreadyExistsException;
+import org.example.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Creates users through {@link UserService} against embedded H2, so that the inserts really reach the database.
+ */
+class UserBatchPersistenceTest {
+    private static ConfigurableApplicationContext context;
+    private static UserService userService;
+    private static UserRepository userRepository;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestApplication.start(TestApplication.database("batch-persistence-test"));
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    private static UserRequestDTO request(String email, int age) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("Batch User");
+        request.setEmail(email);
+        request.setAge(age);
+        return request;
+    }
+
+    @Test
+    void testUpdateToTakenEmailIsReportedAsEmailConflict() {
+        Long taken = userService.createUser(request("taken@example.com", 30)).getId();
+        Long other = userService.createUser(request("other@example.com", 30)).getId();
+
+        assertThatThrownBy(() -> userService.updateUser(other, request("TAKEN@example.com", 30)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        assertThatThrownBy(() -> context.getBean(TransactionTemplate.class).executeWithoutResult(status ->
+                userRepository.updateDetails(other, "Batch User", "taken@example.com", 30, Instant.now())))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .matches(EmailAlreadyExistsException::isEmailConflict);
+        assertThat(userRepository.findById(taken).orElseThrow().getEmail()).isEqualTo("taken@example.com");
+    }
+
+    @Test
+    void testCreateUsersPersistsNewUsersAndSkipsDuplicates() {
+        List<UserBatchResultDTO> results = userService.createUsers(List.of(
+                request("ann@example.com", 30), request("ANN@example.com", 31), request("bob@example.com", 40)));
+
+        assertThat(results).extracting(UserBatchResultDTO::getStatus).containsExactly(
+                UserBatchResultDTO.Status.CREATED, UserBatchResultDTO.Status.DUPLICATE_EMAIL,
+                UserBatchResultDTO.Status.CREATED);
+        User bob = userRepository.findById(results.get(2).getId()).orElseThrow();
+        assertThat(bob.getEmail()).isEqualTo("bob@example.com");
+        assertThat(bob.getAge()).isEqualTo(40);
+        assertThat(bob.getCreatedAt()).isNotNull();
+
+        assertThat(userService.createUsers(List.of(request("bob@example.com", 41), request("carl@example.com", 50))))
+                .extracting(UserBatchResultDTO::getStatus)
+                .containsExactly(UserBatchResultDTO.Status.DUPLICATE_EMAIL, UserBatchResultDTO.Status.CREATED);
+        assertThat(userRepository.findByEmail("carl@example.com")).isPresent();
+    }
+
+    @Test
+    void testCreateUserPersistsAge() {
+        UserResponseDTO created = userService.createUser(request("dora@example.com", 25));
+
+        assertThat(userRepository.findById(created.getId()).orElseThrow().getAge()).isEqualTo(25);
+    }
+}
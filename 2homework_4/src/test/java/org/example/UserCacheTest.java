@@ -0,0 +1,146 @@
+package org.example;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.dao.UserDAO;
+import org.example.dto.UserRequestDTO;
+import org.example.entity.User;
+import org.example.service.UserNotFoundException;
+import org.example.service.UserService;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the "cache" profile against embedded H2: cache hits and misses with their meters,
+ * and what the writes of both write paths evict.
+ */
+class UserCacheTest {
+    private static ConfigurableApplicationContext context;
+    private static UserService userService;
+    private static UserDAO userDAO;
+    private static Cache cache;
+    private static MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestApplication.start(TestApplication.database("user-cache-test"), "--spring.profiles.active=cache");
+        userService = context.getBean(UserService.class);
+        userDAO = context.getBean(UserDAO.class);
+        cache = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache();
+        meterRegistry = context.getBean(MeterRegistry.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    private static UserRequestDTO request(String name, String email) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName(name);
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+
+    /**
+     * Creates a user and reads it once, so that it is in the second-level cache.
+     */
+    private static Long cachedUser(String email) {
+        Long id = userService.createUser(request("Cached User", email)).getId();
+        userService.getUserById(id);
+        assertThat(cache.containsEntity(User.class, id)).isTrue();
+        return id;
+    }
+
+    private static double count(String meter, String region) {
+        return meterRegistry.get(meter).tag("region", region).functionCounter().count();
+    }
+
+    @Test
+    void testRepeatedLookupByIdIsServedFromCacheAndCounted() {
+        Long id = userService.createUser(request("Cached User", "lookup-by-id@example.com")).getId();
+        cache.evictEntityData(User.class, id);
+        double hits = count("user.cache.hits", User.CACHE_REGION);
+        double misses = count("user.cache.misses", User.CACHE_REGION);
+        double puts = count("user.cache.puts", User.CACHE_REGION);
+
+        userService.getUserById(id);
+        userService.getUserById(id);
+
+        assertThat(count("user.cache.misses", User.CACHE_REGION)).isEqualTo(misses + 1);
+        assertThat(count("user.cache.puts", User.CACHE_REGION)).isEqualTo(puts + 1);
+        assertThat(count("user.cache.hits", User.CACHE_REGION)).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void testRepeatedLookupByEmailIsServedFromQueryCacheAndCounted() {
+        userService.createUser(request("Cached User", "lookup-by-email@example.com"));
+        userService.getUserByEmail("lookup-by-email@example.com");
+        double hits = count("user.cache.hits", User.EMAIL_QUERY_CACHE_REGION);
+
+        userService.getUserByEmail("LOOKUP-BY-EMAIL@example.com");
+
+        assertThat(count("user.cache.hits", User.EMAIL_QUERY_CACHE_REGION)).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void testSaveInvalidatesCachedMissingEmailLookup() {
+        assertThatThrownBy(() -> userService.getUserByEmail("saved-later@example.com"))
+                .isInstanceOf(UserNotFoundException.class);
+
+        Long id = userService.createUser(request("Saved Later", "saved-later@example.com")).getId();
+
+        assertThat(userService.getUserByEmail("saved-later@example.com").getId()).isEqualTo(id);
+    }
+
+    @Test
+    void testServiceUpdateAndDeleteEvictOnlyTheWrittenUser() {
+        Long written = cachedUser("service-written@example.com");
+        Long other = cachedUser("service-other@example.com");
+        userService.getUserByEmail("service-written@example.com");
+
+        userService.updateUser(written, request("Renamed", "service-renamed@example.com"));
+
+        assertThat(cache.containsEntity(User.class, written)).isFalse();
+        assertThat(cache.containsEntity(User.class, other)).isTrue();
+        assertThat(userService.getUserById(written).getName()).isEqualTo("Renamed");
+        assertThatThrownBy(() -> userService.getUserByEmail("service-written@example.com"))
+                .isInstanceOf(UserNotFoundException.class);
+
+        userService.deleteUser(written);
+
+        assertThat(cache.containsEntity(User.class, written)).isFalse();
+        assertThat(cache.containsEntity(User.class, other)).isTrue();
+        assertThatThrownBy(() -> userService.getUserById(written)).isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void testDaoUpdateAndDeleteEvictOnlyTheWrittenUser() throws Exception {
+        Long written = cachedUser("dao-written@example.com");
+        Long other = cachedUser("dao-other@example.com");
+
+        User user = userDAO.getUserById(written);
+        user.setName("Renamed");
+        user.setVersion(null);
+        userDAO.updateUser(user);
+
+        assertThat(cache.containsEntity(User.class, written)).isFalse();
+        assertThat(cache.containsEntity(User.class, other)).isTrue();
+        assertThat(userService.getUserById(written).getName()).isEqualTo("Renamed");
+
+        userDAO.deleteUser(written);
+
+        assertThat(cache.containsEntity(User.class, written)).isFalse();
+        assertThat(cache.containsEntity(User.class, other)).isTrue();
+        assertThatThrownBy(() -> userService.getUserById(written)).isInstanceOf(UserNotFoundException.class);
+    }
+}
@@ -0,0 +1,278 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.dto.UserChangeDTO;
+import org.example.service.UserChangeFeed;
+import org.example.service.UserChangedEvent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Server-Sent Events feed on a random port and reads it like an EventSource client.
+ */
+class UserChangeFeedTest {
+    private static final Duration WRITE_TIMEOUT = Duration.ofSeconds(2);
+
+    private static ConfigurableApplicationContext context;
+    private static UserChangeFeed feed;
+    private static HttpClient client;
+    private static URI streamUri;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestApplication.startOnRandomPort(TestApplication.database("change-feed-test"),
+                "--server.tomcat.connection-timeout=" + WRITE_TIMEOUT.toMillis() + "ms");
+        feed = context.getBean(UserChangeFeed.class);
+        client = HttpClient.newHttpClient();
+        streamUri = URI.create(TestApplication.baseUrl(context) + "/api/v1/users/changes/stream");
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    /**
+     * One received event: its id, name and data.
+     */
+    private record Event(String id, String name, String data) {
+    }
+
+    private static void publish(long userId, String name) {
+        feed.onUserChanged(new UserChangedEvent(
+                new UserChangeDTO(userId, name, "user" + userId + "@example.com", Instant.now())));
+    }
+
+    private static InputStream subscribe(String lastEventId) throws Exception {
+        return open(subscribeAsync(lastEventId));
+    }
+
+    /**
+     * Sends the subscription request and returns once the feed has registered it.
+     * The response headers only arrive with the first event, so they are awaited separately by {@link #open}.
+     */
+    private static CompletableFuture<HttpResponse<InputStream>> subscribeAsync(String lastEventId) throws Exception {
+        double subscribers = subscriberCount();
+        HttpRequest.Builder request = HttpRequest.newBuilder(streamUri).header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        CompletableFuture<HttpResponse<InputStream>> response =
+                client.sendAsync(request.GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (subscriberCount() <= subscribers && !response.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return response;
+    }
+
+    private static InputStream open(CompletableFuture<HttpResponse<InputStream>> pending) throws Exception {
+        HttpResponse<InputStream> response = pending.get(20, TimeUnit.SECONDS);
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.body();
+    }
+
+    private static double subscriberCount() {
+        return context.getBean(MeterRegistry.class).get("user.feed.subscribers").gauge().value();
+    }
+
+    /**
+     * Reads the next {@code count} events, skipping heartbeat comments.
+     */
+    private static List<Event> read(BufferedReader stream, int count) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Event> events = new ArrayList<>(count);
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            try {
+                String line;
+                while (events.size() < count && (line = stream.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        if (name != null) {
+                            events.add(new Event(id, name, data.toString()));
+                        }
+                        id = null;
+                        name = null;
+                        data.setLength(0);
+                    } else if (line.startsWith("id:")) {
+                        id = line.substring(3);
+                    } else if (line.startsWith("event:")) {
+                        name = line.substring(6);
+                    } else if (line.startsWith("data:")) {
+                        data.append(line.substring(5));
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return events;
+        }).get(20, TimeUnit.SECONDS);
+    }
+
+    private static BufferedReader reader(InputStream stream) {
+        return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Subscribes without an id, publishes one change and returns the id of its event.
+     */
+    private static String currentEventId() throws Exception {
+        CompletableFuture<HttpResponse<InputStream>> pending = subscribeAsync(null);
+        publish(-1L, "Marker");
+        try (InputStream stream = open(pending)) {
+            List<Event> events = read(reader(stream), 1);
+            return events.get(0).id();
+        }
+    }
+
+    @Test
+    void testLastEventIdReplaysMoreThanOneBufferOfMissedChanges() throws Exception {
+        String lastEventId = currentEventId();
+        int missed = 4 * UserChangeFeed.SUBSCRIBER_BUFFER_SIZE;
+        for (long id = 1; id <= missed; id++) {
+            publish(id, "Missed " + id);
+        }
+
+        try (InputStream stream = subscribe(lastEventId)) {
+            List<Event> events = read(reader(stream), missed);
+
+            assertThat(events).extracting(Event::name).containsOnly(UserChangeFeed.CHANGE_EVENT);
+            ObjectMapper mapper = new ObjectMapper();
+            List<Long> userIds = new ArrayList<>();
+            for (Event event : events) {
+                JsonNode change = mapper.readTree(event.data());
+                userIds.add(change.get("id").asLong());
+            }
+            assertThat(userIds).hasSize(missed).isSorted().startsWith(1L).endsWith((long) missed);
+        }
+    }
+
+    @Test
+    void testUnknownOrEvictedEventIdGetsReset() throws Exception {
+        try (InputStream stream = subscribe("previous-run-42")) {
+            assertThat(read(reader(stream), 1)).extracting(Event::name).containsExactly(UserChangeFeed.RESET_EVENT);
+        }
+
+        String lastEventId = currentEventId();
+        for (long id = 1; id <= UserChangeFeed.HISTORY_SIZE + 1; id++) {
+            publish(id, "Evicting " + id);
+        }
+        try (InputStream stream = subscribe(lastEventId)) {
+            assertThat(read(reader(stream), 1)).extracting(Event::name).containsExactly(UserChangeFeed.RESET_EVENT);
+        }
+    }
+
+    /**
+     * Opens a subscription on a raw socket with a small receive buffer that is never read,
+     * so that the feed's writes to it soon block.
+     */
+    private static Socket stalledSubscriber() throws Exception {
+        double subscribers = subscriberCount();
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(1024);
+        socket.connect(new java.net.InetSocketAddress(streamUri.getHost(), streamUri.getPort()));
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET " + streamUri.getPath() + " HTTP/1.1\r\nHost: localhost\r\n"
+                + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (subscriberCount() <= subscribers && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return socket;
+    }
+
+    @Test
+    void testStalledSubscribersDoNotBlockDeliveryToOthers() throws Exception {
+        List<Socket> stalled = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                stalled.add(stalledSubscriber());
+            }
+            String largeName = "x".repeat(64 * 1024);
+            for (long id = 1; id <= 64; id++) {
+                publish(id, largeName);
+            }
+
+            CompletableFuture<HttpResponse<InputStream>> pending = subscribeAsync(null);
+            publish(-2L, "After the stall");
+            try (InputStream stream = open(pending)) {
+                List<Event> events = read(reader(stream), 1);
+                assertThat(events.get(0).data()).contains("After the stall");
+            }
+        } finally {
+            for (Socket socket : stalled) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    void testStalledWriteIsAbortedAndTheSubscriptionEnded() throws Exception {
+        try (Socket socket = stalledSubscriber()) {
+            String largeName = "x".repeat(64 * 1024);
+            for (long id = 1; id <= 64; id++) {
+                publish(id, largeName);
+            }
+            Thread.sleep(3 * WRITE_TIMEOUT.toMillis());
+
+            socket.setSoTimeout(20_000);
+            InputStream in = socket.getInputStream();
+            byte[] chunk = new byte[64 * 1024];
+            long received = 0;
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                received += read;
+            }
+            assertThat(received).isLessThan(64L * largeName.length());
+        }
+    }
+
+    @Test
+    void testSubscriberThatDoesNotReadIsDisconnected() throws Exception {
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        double droppedBefore = meterRegistry.get("user.feed.dropped").counter().count();
+        String largeName = "x".repeat(64 * 1024);
+        double subscribersBefore = subscriberCount();
+
+        CompletableFuture<HttpResponse<InputStream>> pending = subscribeAsync(null);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        long id = 0;
+        while (meterRegistry.get("user.feed.dropped").counter().count() == droppedBefore
+                && System.nanoTime() < deadline) {
+            publish(++id, largeName);
+            if (id % 100 == 0) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertThat(meterRegistry.get("user.feed.dropped").counter().count()).isGreaterThan(droppedBefore);
+        assertThat(subscriberCount()).isLessThanOrEqualTo(subscribersBefore);
+        open(pending).close();
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.example.dto.UserChangeDTO;
+import org.example.dto.UserChangesDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.entity.User;
+import org.example.entity.UserRepository;
+import org.example.entity.UserTombstone;
+import org.example.entity.UserTombstoneRepository;
+import org.example.service.UserService;
+import org.example.service.UserTombstonePurge;
+import org.example.service.WatermarkExpiredException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs delta sync against embedded H2 with concurrent write transactions and old deletion records.
+ */
+class UserChangesTest {
+    private static ConfigurableApplicationContext context;
+    private static UserService userService;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestApplication.start(TestApplication.database("user-changes-test"));
+        userService = context.getBean(UserService.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    private static UserRequestDTO request(String email) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("Sync User");
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+
+    @Test
+    void testOpenWriteTransactionHoldsBackLaterChanges() throws Exception {
+        String start = userService.getChanges(null, 1000).getWatermark();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        CompletableFuture<Void> slowWrite = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            context.getBean(UserRepository.class).saveAndFlush(new User("Slow", "slow@example.com", 30));
+            written.countDown();
+            try {
+                commit.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+            userService.createUser(request("fast@example.com"));
+
+            UserChangesDTO whileOpen = userService.getChanges(start, null);
+            assertThat(whileOpen.getChanges()).isEmpty();
+            assertThat(whileOpen.getWatermark()).isEqualTo(start);
+        } finally {
+            commit.countDown();
+        }
+        slowWrite.get(10, TimeUnit.SECONDS);
+
+        UserChangesDTO afterCommit = userService.getChanges(start, null);
+        assertThat(afterCommit.getChanges()).extracting(UserChangeDTO::getEmail)
+                .containsExactly("slow@example.com", "fast@example.com");
+    }
+
+    @Test
+    void testOldTombstonesArePurgedAndTheirWatermarksExpire() {
+        UserTombstoneRepository tombstones = context.getBean(UserTombstoneRepository.class);
+        Instant old = Instant.now().minus(Duration.ofDays(40));
+        tombstones.save(new UserTombstone(-10L, old));
+        tombstones.save(new UserTombstone(-11L, Instant.now()));
+
+        context.getBean(UserTombstonePurge.class).purge();
+
+        assertThat(tombstones.existsById(-10L)).isFalse();
+        assertThat(tombstones.existsById(-11L)).isTrue();
+        assertThatThrownBy(() -> userService.getChanges(old + "_0", null))
+                .isInstanceOf(WatermarkExpiredException.class);
+    }
+}
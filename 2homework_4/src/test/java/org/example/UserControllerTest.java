@@ -1,43 +1,64 @@
 package org.example;
 
-import org.example.dto.UserDTO;
-import org.example.mapper.UserMapper;
+import org.example.controller.UserController;
+import org.example.dto.UserCreationStatusDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
 import org.example.service.UserService;
 import org.junit.jupiter.api.Test;
-import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
-import org.testcontainers.shaded.com.github.dockerjava.core.MediaType;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
-import static com.github.dockerjava.zerodep.shaded.org.apache.hc.core5.http.io.support.ClassicRequestBuilder.post;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
-@WebMvcTest(UserService.class)
-public class UserControllerTest {
-    @Autowired
-    private MockMvc mockMvc;
+@ExtendWith(MockitoExtension.class)
+class UserControllerTest {
+    @Mock
+    private UserService userService;
 
-    @MockBean
-    private UserMapper userService;
+    @InjectMocks
+    private UserController userController;
 
     @Test
-    void createUser_ShouldReturnCreated() throws Exception {
-        UserDTO request = new UserDTO("John", "john@example.com");
-        ResponseDTO response = new ResponseDTO(1L, "John", "john@example.com");
-
+    void createUser_ShouldReturnCreated() {
+        UserRequestDTO request = request();
+        UserResponseDTO response = new UserResponseDTO(1L, "John", "john@example.com", 0L);
         when(userService.createUser(any())).thenReturn(response);
 
-        mockMvc.perform(post("/api/users")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(asJsonString(request)))
-                .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.id").value(1L));
+        ResponseEntity<Object> result = userController.createUser(request);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(result.getBody()).isSameAs(response);
+    }
+
+    @Test
+    void createUser_InWriteBehindMode_ShouldReturnAccepted() {
+        UserRequestDTO request = request();
+        UserCreationStatusDTO status = new UserCreationStatusDTO("t-1", UserCreationStatusDTO.Status.PENDING,
+                null, "john@example.com", null);
+        when(userService.isWriteBehind()).thenReturn(true);
+        when(userService.submitUser(request)).thenReturn(status);
+
+        ResponseEntity<Object> result = userController.createUser(request);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(result.getHeaders().getLocation()).isEqualTo(URI.create("/api/v1/users/pending/t-1"));
+        verify(userService, never()).createUser(any());
     }
 
-    private static String asJsonString(final Object obj) {
-        try {
-            return new ObjectMapper().writeValueAsString(obj);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    private static UserRequestDTO request() {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("John");
+        request.setEmail("john@example.com");
+        request.setAge(30);
+        return request;
     }
 }
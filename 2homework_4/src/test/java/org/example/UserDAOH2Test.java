@@ -0,0 +1,156 @@
+package org.example;
+
+import org.example.dao.UserBatchWriter;
+import org.example.dao.UserDAOImpl;
+import org.example.entity.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the standalone DAO against embedded H2, so that its queries run without Docker.
+ * The session factory is built from hibernate.cfg.xml like the shared one, but privately,
+ * so the Docker-based {@code UserDAOTest} and the benchmarks keep their own database.
+ */
+class UserDAOH2Test {
+    private static SessionFactory sessionFactory;
+    private static UserDAOImpl userDAO;
+
+    @BeforeAll
+    static void buildSessionFactory() {
+        sessionFactory = new Configuration().configure()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:user-dao-h2-test;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.password", "")
+                .buildSessionFactory();
+        userDAO = new UserDAOImpl(sessionFactory);
+    }
+
+    @AfterAll
+    static void closeSessionFactory() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void deleteAllUsers() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("DELETE FROM users").executeUpdate();
+            session.createNativeMutationQuery("DELETE FROM user_tombstones").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    /**
+     * Saves users with the given names, one by one, and returns them in id order.
+     */
+    private static List<User> saveUsers(String... names) throws Exception {
+        List<User> users = new ArrayList<>();
+        for (String name : names) {
+            User user = new User(name, name.toLowerCase() + "@example.com", 30);
+            userDAO.saveUser(user);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+
+    @Test
+    void testGetUsersPagesByLastId() throws Exception {
+        List<User> users = saveUsers("Ann", "Bob", "Carl", "Dora", "Eve");
+
+        List<User> first = userDAO.getUsers(null, 2);
+        List<User> second = userDAO.getUsers(first.get(1).getId(), 2);
+        List<User> last = userDAO.getUsers(second.get(1).getId(), 2);
+
+        assertThat(ids(first)).isEqualTo(ids(users.subList(0, 2)));
+        assertThat(ids(second)).isEqualTo(ids(users.subList(2, 4)));
+        assertThat(ids(last)).isEqualTo(ids(users.subList(4, 5)));
+        assertThat(userDAO.getUsers(users.get(4).getId(), 2)).isEmpty();
+    }
+
+    @Test
+    void testGetUsersByIdsKeepsRequestOrderAndMarksMissingIds() throws Exception {
+        List<User> users = saveUsers("Ann", "Bob", "Carl");
+        Long missing = users.get(2).getId() + 1000;
+
+        List<User> found = userDAO.getUsersByIds(List.of(users.get(2).getId(), missing, users.get(0).getId()));
+
+        assertThat(found).hasSize(3);
+        assertThat(found.get(0).getName()).isEqualTo("Carl");
+        assertThat(found.get(1)).isNull();
+        assertThat(found.get(2).getName()).isEqualTo("Ann");
+    }
+
+    @Test
+    void testForEachUserVisitsAllUsersInIdOrder() throws Exception {
+        List<User> users = saveUsers("Ann", "Bob", "Carl");
+        List<Long> visited = new ArrayList<>();
+
+        long count = userDAO.forEachUser(user -> visited.add(user.getId()));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(visited).isEqualTo(ids(users));
+    }
+
+    @Test
+    void testGetIdRangeAndForEachUserOfRange() throws Exception {
+        assertThat(userDAO.getIdRange()).isNull();
+        List<User> users = saveUsers("Ann", "Bob", "Carl", "Dora");
+        long[] range = userDAO.getIdRange();
+        List<Long> visited = new ArrayList<>();
+
+        long count = userDAO.forEachUser(users.get(1).getId(), users.get(3).getId(), user -> visited.add(user.getId()));
+
+        assertThat(range).containsExactly(users.get(0).getId(), users.get(3).getId());
+        assertThat(count).isEqualTo(2);
+        assertThat(visited).containsExactly(users.get(1).getId(), users.get(2).getId());
+    }
+
+    @Test
+    void testBatchWriterSkipsDuplicateEmails() throws Exception {
+        saveUsers("Ann");
+        User bob = new User("Bob", "bob@example.com", 30);
+        User annAgain = new User("Ann Again", "ANN@example.com", 30);
+        User bobAgain = new User("Bob Again", "bob@example.com", 30);
+
+        try (UserBatchWriter writer = userDAO.openBatchWriter()) {
+            assertThat(writer.write(List.of(bob, annAgain, bobAgain))).containsExactly(annAgain, bobAgain);
+        }
+
+        assertThat(userDAO.getAllUsers()).extracting(User::getName).containsExactlyInAnyOrder("Ann", "Bob");
+    }
+
+    @Test
+    void testBatchWriterRollsBackFailedBatchAndAcceptsItAgain() throws Exception {
+        User valid = new User("Valid", "valid@example.com", 30);
+        User invalid = new User(null, "invalid@example.com", 30);
+
+        try (UserBatchWriter writer = userDAO.openBatchWriter()) {
+            assertThatThrownBy(() -> writer.write(List.of(valid, invalid))).hasMessage("Problems with adding users!");
+
+            assertThat(userDAO.getIdRange()).isNull();
+            assertThat(Arrays.asList(valid.getId(), invalid.getId(), valid.getVersion())).containsOnlyNulls();
+
+            invalid.setName("Fixed");
+            assertThat(writer.write(List.of(valid, invalid))).isEmpty();
+            assertThat(writer.write(List.of(new User("Next", "next@example.com", 30)))).isEmpty();
+        }
+
+        assertThat(userDAO.getAllUsers()).extracting(User::getName).containsExactlyInAnyOrder("Valid", "Fixed", "Next");
+    }
+}
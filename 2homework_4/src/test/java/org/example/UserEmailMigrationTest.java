@@ -0,0 +1,63 @@
+package org.example;
+
+import org.example.dao.UserDAO;
+import org.example.entity.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@code migrate-emails} command on rows written with mixed-case emails before emails were normalized.
+ */
+class UserEmailMigrationTest {
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbcTemplate;
+    private static UserDAO userDAO;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestApplication.start(TestApplication.database("email-migration-test"));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        userDAO = context.getBean(UserDAO.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    private static void insert(long id, String email) {
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age, created_at, updated_at, version) "
+                + "VALUES (?, 'Legacy User', ?, 30, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)", id, email);
+    }
+
+    @Test
+    void testLowerCasesLegacyEmailsAndLeavesClashesAlone() throws Exception {
+        insert(-1, "Mixed.Case@Example.com");
+        insert(-2, "Clash@Example.com");
+        insert(-3, "clash@example.com");
+
+        assertThat(userDAO.lowerCaseEmails()).isEqualTo(1);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        assertThat(userRepository.findByEmail("mixed.case@example.com")).hasValueSatisfying(user -> {
+            assertThat(user.getId()).isEqualTo(-1L);
+            assertThat(user.getVersion()).isEqualTo(1L);
+        });
+        assertThat(userRepository.findById(-2L).orElseThrow().getEmail()).isEqualTo("Clash@Example.com");
+        assertThat(userDAO.countMixedCaseEmails()).isEqualTo(1);
+    }
+
+    @Test
+    void testRunningAgainChangesNothing() throws Exception {
+        insert(-4, "Again@Example.com");
+        userDAO.lowerCaseEmails();
+
+        assertThat(userDAO.lowerCaseEmails()).isZero();
+        assertThat(userDAO.getUserById(-4L).getVersion()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,172 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cli.ExportSummary;
+import org.example.cli.UserExporter;
+import org.example.dao.UserDAO;
+import org.example.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExporterTest {
+    @Mock
+    private UserDAO userDAO;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+
+    @Test
+    void testExportNdjsonWritesShardsByIdRangeAndManifest() throws Exception {
+        List<User> users = users(1, 2, 3, 5, 8, 10);
+        stubUsers(users);
+
+        ExportSummary summary = new UserExporter(userDAO, 2, out).export(directory, UserExporter.Format.NDJSON);
+
+        JsonNode manifest = json.readTree(summary.manifest().toFile());
+        assertThat(summary.exported()).isEqualTo(6);
+        assertThat(manifest.get("users").asLong()).isEqualTo(6);
+        assertThat(manifest.get("format").asText()).isEqualTo("ndjson");
+
+        List<Long> ids = new ArrayList<>();
+        long previousToId = 0;
+        for (JsonNode shard : manifest.get("shards")) {
+            Path file = directory.resolve(shard.get("file").asText());
+            assertThat(shard.get("fromId").asLong()).isEqualTo(previousToId + 1);
+            assertThat(shard.get("bytes").asLong()).isEqualTo(Files.size(file));
+            assertThat(shard.get("sha256").asText()).isEqualTo(sha256(file));
+            List<String> lines = gunzip(file);
+            assertThat(lines).hasSize(shard.get("users").asInt());
+            for (String line : lines) {
+                ids.add(json.readTree(line).get("id").asLong());
+            }
+            previousToId = shard.get("toId").asLong();
+        }
+        assertThat(previousToId).isEqualTo(10);
+        assertThat(ids).containsExactly(1L, 2L, 3L, 5L, 8L, 10L);
+        assertThat(manifest.get("shards")).hasSize(5);
+    }
+
+    @Test
+    void testExportCsvWritesHeaderAndQuotesFields() throws Exception {
+        List<User> users = users(7);
+        users.get(0).setName("Carl, Jr.");
+        stubUsers(users);
+
+        ExportSummary summary = new UserExporter(userDAO, 1, out).export(directory, UserExporter.Format.CSV);
+
+        assertThat(summary.shards()).isEqualTo(1);
+        assertThat(gunzip(directory.resolve("users-00000.csv.gz")))
+                .containsExactly("id,name,email,age,created_at,updated_at",
+                        "7,\"Carl, Jr.\",user7@example.com,37,2024-01-01T00:00,2024-01-02T00:00:00Z");
+    }
+
+    @Test
+    void testExportCsvQuotesLineBreaks() throws Exception {
+        List<User> users = users(7);
+        users.get(0).setName("Carriage\rReturn and\nNew Line");
+        stubUsers(users);
+
+        new UserExporter(userDAO, 1, out).export(directory, UserExporter.Format.CSV);
+
+        assertThat(gunzipText(directory.resolve("users-00000.csv.gz")))
+                .contains("7,\"Carriage\rReturn and\nNew Line\",user7@example.com,");
+    }
+
+    @Test
+    void testFailedExportLeavesNoManifestOfThePreviousOne() throws Exception {
+        stubUsers(users(1, 2));
+        Path manifest = new UserExporter(userDAO, 1, out).export(directory, UserExporter.Format.NDJSON).manifest();
+        when(userDAO.forEachUser(anyLong(), anyLong(), any())).thenThrow(new Exception("connection lost"));
+
+        assertThatThrownBy(() -> new UserExporter(userDAO, 1, out).export(directory, UserExporter.Format.NDJSON))
+                .hasRootCauseMessage("connection lost");
+        assertThat(manifest).doesNotExist();
+    }
+
+    @Test
+    void testExportWithoutUsersWritesEmptyManifest() throws Exception {
+        when(userDAO.getIdRange()).thenReturn(null);
+
+        ExportSummary summary = new UserExporter(userDAO, 2, out).export(directory, UserExporter.Format.NDJSON);
+
+        assertThat(summary.exported()).isZero();
+        assertThat(json.readTree(summary.manifest().toFile()).get("shards")).isEmpty();
+        verify(userDAO, never()).forEachUser(anyLong(), anyLong(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubUsers(List<User> users) throws Exception {
+        when(userDAO.getIdRange()).thenReturn(new long[]{users.get(0).getId(), users.get(users.size() - 1).getId()});
+        when(userDAO.forEachUser(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            long fromId = invocation.getArgument(0);
+            long toId = invocation.getArgument(1);
+            Consumer<User> consumer = invocation.getArgument(2);
+            long count = 0;
+            for (User user : users) {
+                if (user.getId() >= fromId && user.getId() < toId) {
+                    consumer.accept(user);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    private static List<User> users(long... ids) {
+        List<User> users = new ArrayList<>();
+        for (long id : ids) {
+            User user = new User("User " + id, "user" + id + "@example.com", 30 + (int) id);
+            user.setId(id);
+            user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+            user.setUpdatedAt(Instant.parse("2024-01-02T00:00:00Z"));
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static List<String> gunzip(Path file) throws Exception {
+        return gunzipText(file).lines().toList();
+    }
+
+    private static String gunzipText(Path file) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            in.transferTo(content);
+            return content.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String sha256(Path file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+    }
+}
@@ -0,0 +1,132 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the user API on a random port and checks that Accept / Content-Type select JSON, CBOR or Smile.
+ */
+class UserFormatNegotiationTest {
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private static ConfigurableApplicationContext context;
+
+    private static HttpClient client;
+
+    private static String baseUrl;
+
+    private static long userId;
+
+    @BeforeAll
+    static void startContext() throws Exception {
+        context = TestApplication.startOnRandomPort(TestApplication.database("negotiation"));
+        client = HttpClient.newHttpClient();
+        baseUrl = TestApplication.baseUrl(context) + "/api/v1/users";
+
+        HttpResponse<byte[]> created = send(HttpRequest.newBuilder(URI.create(baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(new ObjectMapper().writeValueAsBytes(
+                        request("Jane Doe", "jane@example.com")))));
+        assertThat(created.statusCode()).isEqualTo(201);
+        userId = new ObjectMapper().readValue(created.body(), UserResponseDTO.class).getId();
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    private static UserRequestDTO request(String name, String email) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName(name);
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+
+    private static HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static HttpResponse<byte[]> get(String accept) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + userId)).header("Accept", accept).GET());
+    }
+
+    @Test
+    void testCborResponse() throws Exception {
+        HttpResponse<byte[]> json = get("application/json");
+        HttpResponse<byte[]> cbor = get("application/cbor");
+
+        assertThat(cbor.statusCode()).isEqualTo(200);
+        assertThat(cbor.headers().firstValue("Content-Type")).hasValue("application/cbor");
+        UserResponseDTO user = new CBORMapper().readValue(cbor.body(), UserResponseDTO.class);
+        assertThat(user.getId()).isEqualTo(userId);
+        assertThat(user.getEmail()).isEqualTo("jane@example.com");
+        assertThat(cbor.body().length).isLessThan(json.body().length);
+    }
+
+    @Test
+    void testSmileResponse() throws Exception {
+        HttpResponse<byte[]> smile = get("application/json;q=0.5, " + SMILE);
+
+        assertThat(smile.statusCode()).isEqualTo(200);
+        assertThat(smile.headers().firstValue("Content-Type")).hasValue(SMILE);
+        UserResponseDTO user = new SmileMapper().readValue(smile.body(), UserResponseDTO.class);
+        assertThat(user.getName()).isEqualTo("Jane Doe");
+    }
+
+    @Test
+    void testJsonIsDefault() throws Exception {
+        HttpResponse<byte[]> any = get("*/*");
+
+        assertThat(any.headers().firstValue("Content-Type")).hasValue("application/json");
+        assertThat(new ObjectMapper().readValue(any.body(), UserResponseDTO.class).getId()).isEqualTo(userId);
+    }
+
+    @Test
+    void testEtagDependsOnMediaType() throws Exception {
+        String jsonEtag = get("application/json").headers().firstValue("ETag").orElseThrow();
+        String cborEtag = get("application/cbor").headers().firstValue("ETag").orElseThrow();
+        String smileEtag = get(SMILE).headers().firstValue("ETag").orElseThrow();
+
+        assertThat(jsonEtag).isNotEqualTo(cborEtag).isNotEqualTo(smileEtag);
+        assertThat(cborEtag).isNotEqualTo(smileEtag);
+
+        HttpResponse<byte[]> revalidated = send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + userId))
+                .header("Accept", "application/cbor").header("If-None-Match", cborEtag).GET());
+        assertThat(revalidated.statusCode()).isEqualTo(304);
+
+        HttpResponse<byte[]> otherEncoding = send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + userId))
+                .header("Accept", "application/cbor").header("If-None-Match", jsonEtag).GET());
+        assertThat(otherEncoding.statusCode()).isEqualTo(200);
+        assertThat(new CBORMapper().readValue(otherEncoding.body(), UserResponseDTO.class).getId()).isEqualTo(userId);
+    }
+
+    @Test
+    void testCborRequestBody() throws Exception {
+        HttpResponse<byte[]> created = send(HttpRequest.newBuilder(URI.create(baseUrl))
+                .header("Content-Type", "application/cbor")
+                .header("Accept", "application/cbor")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(new CBORMapper().writeValueAsBytes(
+                        request("John Doe", "john@example.com")))));
+
+        assertThat(created.statusCode()).isEqualTo(201);
+        UserResponseDTO user = new CBORMapper().readValue(created.body(), UserResponseDTO.class);
+        assertThat(user.getEmail()).isEqualTo("john@example.com");
+    }
+}
@@ -0,0 +1,131 @@
+package org.example;
+
+import org.example.cli.ImportSummary;
+import org.example.cli.UserImporter;
+import org.example.dao.UserBatchWriter;
+import org.example.dao.UserDAO;
+import org.example.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImporterTest {
+    @Mock
+    private UserDAO userDAO;
+
+    @Mock
+    private UserBatchWriter writer;
+
+    @TempDir
+    private Path directory;
+
+    private final PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+
+    @Test
+    void testImportCsvWritesBatchesInFileOrderAndRejectsInvalidRows() throws Exception {
+        Path file = directory.resolve("users.csv");
+        Files.write(file, List.of(
+                "email,name,age",
+                "ann@example.com,Ann,30",
+                "not-an-email,Bob,40",
+                "",
+                "\"carl@example.com\",\"Carl, Jr.\",25",
+                "dora@example.com,Dora,",
+                "taken@example.com,Eve,50"));
+        List<String> written = new ArrayList<>();
+        when(userDAO.openBatchWriter()).thenReturn(writer);
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> written.add(user.getEmail()));
+            return users.stream().filter(user -> user.getEmail().startsWith("taken")).toList();
+        });
+
+        ImportSummary summary = new UserImporter(userDAO, 2, 2, out).importFile(file);
+
+        assertThat(written).containsExactly("ann@example.com", "carl@example.com", "taken@example.com");
+        assertThat(summary.imported()).isEqualTo(2);
+        assertThat(summary.rejected()).isEqualTo(3);
+        assertThat(Files.readAllLines(summary.rejectsFile()))
+                .hasSize(3)
+                .anySatisfy(line -> assertThat(line).contains("\"line\":3").contains("invalid email"))
+                .anySatisfy(line -> assertThat(line).contains("\"line\":6").contains("invalid age"))
+                .anySatisfy(line -> assertThat(line).contains("\"line\":7").contains("email already exists"));
+        verify(writer, times(2)).write(anyList());
+        verify(writer).close();
+    }
+
+    @Test
+    void testImportNdjsonRetriesFailedBatchRowByRow() throws Exception {
+        Path file = directory.resolve("users.ndjson");
+        Files.write(file, List.of(
+                "\uFEFF{\"name\":\"Ann\",\"email\":\"ann@example.com\",\"age\":30}",
+                "{\"name\":\"Bob\",\"email\":\"bob@example.com\",\"age\":40}",
+                "{broken",
+                "{\"name\":\"Carl\",\"email\":\"carl@example.com\",\"age\":25}"));
+        List<List<String>> calls = new ArrayList<>();
+        when(userDAO.openBatchWriter()).thenReturn(writer);
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            calls.add(users.stream().map(User::getEmail).toList());
+            if (users.stream().anyMatch(user -> user.getEmail().startsWith("bob"))) {
+                throw new Exception("Problems with adding users!", new IllegalStateException("value too long"));
+            }
+            return List.of();
+        });
+
+        ImportSummary summary = new UserImporter(userDAO, 2, 2, out).importFile(file);
+
+        assertThat(calls).containsExactly(
+                List.of("ann@example.com", "bob@example.com"),
+                List.of("ann@example.com"),
+                List.of("bob@example.com"),
+                List.of("carl@example.com"));
+        assertThat(summary.imported()).isEqualTo(2);
+        assertThat(summary.rejected()).isEqualTo(2);
+        assertThat(Files.readAllLines(summary.rejectsFile()))
+                .hasSize(2)
+                .anySatisfy(line -> assertThat(line).contains("\"line\":2").contains("value too long"))
+                .anySatisfy(line -> assertThat(line).contains("\"line\":3"));
+    }
+
+    @Test
+    void testImportCsvIgnoresByteOrderMark() throws Exception {
+        Path file = directory.resolve("users.csv");
+        Files.write(file, List.of("\uFEFFemail,name,age", "ann@example.com,Ann,30"));
+        when(userDAO.openBatchWriter()).thenReturn(writer);
+        when(writer.write(anyList())).thenReturn(List.of());
+
+        ImportSummary summary = new UserImporter(userDAO, 1, 10, out).importFile(file);
+
+        assertThat(summary.imported()).isEqualTo(1);
+        assertThat(summary.rejectsFile()).isNull();
+    }
+
+    @Test
+    void testImportWithoutRejectsLeavesNoRejectsFile() throws Exception {
+        Path file = directory.resolve("users.csv");
+        Files.write(file, List.of("name,email,age", "Ann,ann@example.com,30"));
+        when(userDAO.openBatchWriter()).thenReturn(writer);
+        when(writer.write(anyList())).thenReturn(List.of());
+
+        ImportSummary summary = new UserImporter(userDAO, 1, 10, out).importFile(file);
+
+        assertThat(summary.imported()).isEqualTo(1);
+        assertThat(summary.rejectsFile()).isNull();
+        assertThat(directory.resolve("users.csv.rejects")).doesNotExist();
+    }
+}
@@ -0,0 +1,46 @@
+package org.example;
+
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.entity.User;
+import org.example.mapper.UserMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserMapperTest {
+    private final UserMapper userMapper = new UserMapper();
+
+    @Test
+    void testToResponseDto() {
+        User user = new User("John Doe", "john@example.com", 30);
+        user.setId(7L);
+
+        UserResponseDTO dto = userMapper.toResponseDto(user);
+
+        assertThat(dto.getId()).isEqualTo(7L);
+        assertThat(dto.getName()).isEqualTo("John Doe");
+        assertThat(dto.getEmail()).isEqualTo("john@example.com");
+    }
+
+    @Test
+    void testToEntity() {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("John Doe");
+        request.setEmail("john@example.com");
+        request.setAge(30);
+
+        User user = userMapper.toEntity(request);
+
+        assertThat(user.getId()).isNull();
+        assertThat(user.getName()).isEqualTo("John Doe");
+        assertThat(user.getEmail()).isEqualTo("john@example.com");
+        assertThat(user.getAge()).isEqualTo(30);
+    }
+
+    @Test
+    void testNullSource() {
+        assertThat(userMapper.toResponseDto(null)).isNull();
+        assertThat(userMapper.toEntity((UserRequestDTO) null)).isNull();
+    }
+}
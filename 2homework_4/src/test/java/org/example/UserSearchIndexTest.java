@@ -0,0 +1,181 @@
+package org.example;
+
+import org.example.dto.UserResponseDTO;
+import org.example.dto.UserSearchCriteriaDTO;
+import org.example.entity.User;
+import org.example.entity.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with H2's EXPLAIN that the keyset query generated for every search filter is served by an index declared
+ * on the User entity instead of a scan of the primary key. The SQL is captured from Hibernate while the search runs,
+ * so the plan is the one of the real {@code id > ? ... ORDER BY id FETCH FIRST ?} page query. H2 plans a prepared
+ * statement without looking at its parameters, so the bound values are inlined before explaining, as PostgreSQL
+ * does when it plans a statement for its actual parameters.
+ */
+class UserSearchIndexTest {
+    private static final int LIMIT = 20;
+    private static final int USERS = 20_000;
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void startContext() throws Exception {
+        context = TestApplication.start(TestApplication.database("search-index-test"),
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + CapturingStatementInspector.class.getName());
+        seed();
+    }
+
+    /**
+     * Fills the table with users spread over many names, ages and creation hours and gathers statistics,
+     * so the planner weighs each filter against the whole {@code id > 0} range by its real selectivity.
+     */
+    private static void seed() throws Exception {
+        List<User> users = new ArrayList<>(USERS);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("User" + i, "user" + i + "@example.com", i % 100);
+            user.setCreatedAt(start.plusHours(i));
+            users.add(user);
+        }
+        context.getBean(UserRepository.class).saveAll(users);
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    /**
+     * Runs the search, then explains the SQL it sent with its parameters inlined: the id bound,
+     * the filter values in criteria order and the page size.
+     */
+    private static String explainSearch(UserSearchCriteriaDTO criteria, Object... filterValues) throws Exception {
+        CapturingStatementInspector.lastSql = null;
+        context.getBean(UserRepository.class).search(criteria, 0L, LIMIT);
+        String sql = CapturingStatementInspector.lastSql;
+        assertThat(sql).contains("id>?").contains("order by").contains("fetch first ? rows only");
+
+        List<Object> values = new ArrayList<>();
+        values.add(0L);
+        values.addAll(List.of(filterValues));
+        values.add(LIMIT);
+        StringBuilder explain = new StringBuilder("EXPLAIN ");
+        int start = 0;
+        for (Object value : values) {
+            int parameter = sql.indexOf('?', start);
+            explain.append(sql, start, parameter).append(literal(value));
+            start = parameter + 1;
+        }
+        assertThat(sql.indexOf('?', start)).as("unbound parameters in %s", sql).isNegative();
+        explain.append(sql.substring(start));
+
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery(explain.toString())) {
+            plan.next();
+            return plan.getString(1).toLowerCase();
+        }
+    }
+
+    private static String literal(Object value) {
+        if (value instanceof String string) {
+            return "'" + string.replace("'", "''") + "'";
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return "TIMESTAMP '" + Timestamp.valueOf(dateTime) + "'";
+        }
+        return value.toString();
+    }
+
+    @Test
+    void testNamePrefixUsesIndex() throws Exception {
+        UserSearchCriteriaDTO criteria = new UserSearchCriteriaDTO();
+        criteria.setNamePrefix("Jo");
+
+        String plan = explainSearch(criteria, "Jo%");
+
+        assertThat(plan).contains("idx_users_name").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testEmailUsesUniqueIndex() throws Exception {
+        UserSearchCriteriaDTO criteria = new UserSearchCriteriaDTO();
+        criteria.setEmail("john@example.com");
+
+        String plan = explainSearch(criteria, "john@example.com");
+
+        assertThat(plan).doesNotContain("tablescan");
+    }
+
+    @Test
+    void testAgeRangeUsesIndex() throws Exception {
+        UserSearchCriteriaDTO criteria = new UserSearchCriteriaDTO();
+        criteria.setMinAge(18);
+        criteria.setMaxAge(30);
+
+        String plan = explainSearch(criteria, 18, 30);
+
+        assertThat(plan).contains("idx_users_age").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testCreationWindowUsesIndex() throws Exception {
+        UserSearchCriteriaDTO criteria = new UserSearchCriteriaDTO();
+        criteria.setCreatedFrom(LocalDateTime.of(2024, 1, 1, 0, 0));
+        criteria.setCreatedTo(LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        String plan = explainSearch(criteria, criteria.getCreatedFrom(), criteria.getCreatedTo());
+
+        assertThat(plan).contains("idx_users_created_at").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testSearchPagesInIdOrder() {
+        UserSearchCriteriaDTO criteria = new UserSearchCriteriaDTO();
+        criteria.setMinAge(18);
+        criteria.setMaxAge(18);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        List<UserResponseDTO> first = userRepository.search(criteria, 0L, LIMIT);
+        List<UserResponseDTO> second = userRepository.search(criteria, first.get(LIMIT - 1).getId(), LIMIT);
+
+        assertThat(first).hasSize(LIMIT).extracting(UserResponseDTO::getId).isSorted();
+        assertThat(second).hasSize(LIMIT).extracting(UserResponseDTO::getId).isSorted()
+                .allMatch(id -> id > first.get(LIMIT - 1).getId());
+        assertThat(first).extracting(UserResponseDTO::getName).allMatch(name -> name.endsWith("18"));
+    }
+
+    /**
+     * Remembers the last SQL statement Hibernate prepares.
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+        static volatile String lastSql;
+
+        @Override
+        public String inspect(String sql) {
+            lastSql = sql;
+            return sql;
+        }
+    }
+}
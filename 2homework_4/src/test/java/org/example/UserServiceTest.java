@@ -0,0 +1,395 @@
+package org.example;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.UserBatchResultDTO;
+import org.example.dto.UserChangeDTO;
+import org.example.dto.UserChangesDTO;
+import org.example.dto.UserLookupDTO;
+import org.example.dto.UserPageDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.entity.User;
+import org.example.entity.UserRepository;
+import org.example.entity.UserTombstoneRepository;
+import org.example.mapper.UserMapper;
+import org.example.metrics.MetricsConfig;
+import org.example.service.EmailAlreadyExistsException;
+import org.example.service.InvalidWatermarkException;
+import org.example.service.UserChangedEvent;
+import org.example.service.UserNotFoundException;
+import org.example.service.UserService;
+import org.example.service.UserTombstonePurge;
+import org.example.service.UserWriteBehindQueue;
+import org.example.service.VersionConflictException;
+import org.example.service.WriteTransactionHorizon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserTombstoneRepository userTombstoneRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserWriteBehindQueue writeBehindQueue;
+
+    @Mock
+    private WriteTransactionHorizon writeTransactionHorizon;
+
+    @Mock
+    private UserTombstonePurge userTombstonePurge;
+
+    @InjectMocks
+    private UserService userService;
+
+    private static List<UserResponseDTO> users(long fromId, int count) {
+        List<UserResponseDTO> users = new ArrayList<>();
+        for (long id = fromId; id < fromId + count; id++) {
+            users.add(new UserResponseDTO(id, "User", "user" + id + "@example.com", 0L));
+        }
+        return users;
+    }
+
+    @Test
+    void testGetUsersPageReturnsNextCursorWhenMoreRowsExist() {
+        when(userRepository.findPage(10L, Limit.of(3))).thenReturn(users(11, 3));
+
+        UserPageDTO page = userService.getUsersPage(10L, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    void testGetUsersPageReturnsNoCursorOnLastPage() {
+        when(userRepository.findPage(0L, Limit.of(UserService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(users(1, 2));
+
+        UserPageDTO page = userService.getUsersPage(null, null);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testGetUsersPageClampsLimit() {
+        userService.getUsersPage(null, 1_000_000);
+
+        verify(userRepository).findPage(0L, Limit.of(UserService.MAX_PAGE_SIZE + 1));
+    }
+
+    private static UserRequestDTO request(String email) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("User");
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+
+    @Test
+    void testCreateUsersSkipsDuplicateEmails() {
+        List<UserRequestDTO> requests = List.of(request("a@example.com"), request("taken@example.com"),
+                request("a@example.com"), request("b@example.com"));
+        when(userRepository.findExistingEmails(any())).thenReturn(Set.of("taken@example.com"));
+        when(userMapper.toEntity(any(UserRequestDTO.class))).thenAnswer(invocation -> {
+            UserRequestDTO request = invocation.getArgument(0);
+            return new User(request.getName(), request.getEmail(), request.getAge());
+        });
+        when(userRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            List<User> saved = invocation.getArgument(0);
+            long id = 1;
+            for (User user : saved) {
+                user.setId(id++);
+            }
+            return saved;
+        });
+
+        List<UserBatchResultDTO> results = userService.createUsers(requests);
+
+        assertThat(results).extracting(UserBatchResultDTO::getStatus).containsExactly(
+                UserBatchResultDTO.Status.CREATED, UserBatchResultDTO.Status.DUPLICATE_EMAIL,
+                UserBatchResultDTO.Status.DUPLICATE_EMAIL, UserBatchResultDTO.Status.CREATED);
+        assertThat(results).extracting(UserBatchResultDTO::getId).containsExactly(1L, null, null, 2L);
+        verify(userRepository, times(1)).findExistingEmails(any());
+    }
+
+    @Test
+    void testUpdateUserIssuesSingleUpdate() {
+        when(userRepository.updateDetails(eq(5L), eq("User"), eq("new@example.com"), eq(30), any())).thenReturn(1);
+
+        UserResponseDTO response = userService.updateUser(5L, request("new@example.com"));
+
+        assertThat(response.getId()).isEqualTo(5L);
+        assertThat(response.getEmail()).isEqualTo("new@example.com");
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void testUpdateMissingUserThrows() {
+        when(userRepository.updateDetails(any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> userService.updateUser(5L, request("new@example.com")))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void testUpdateUserToTakenEmailThrowsConflict() {
+        when(userRepository.existsByEmailAndIdNot("taken@example.com", 5L)).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.updateUser(5L, request("Taken@Example.com")))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        verify(userRepository, never()).updateDetails(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testUpdateUserRacingForEmailThrowsConflict() {
+        when(userRepository.updateDetails(any(), any(), any(), any(), any())).thenThrow(
+                new DataIntegrityViolationException("Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL\""));
+
+        assertThatThrownBy(() -> userService.updateUser(5L, request("new@example.com")))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+    }
+
+    @Test
+    void testUpdateUserViolatingOtherConstraintIsNotAConflict() {
+        when(userRepository.updateDetails(any(), any(), any(), any(), any())).thenThrow(
+                new DataIntegrityViolationException("NULL not allowed for column \"NAME\""));
+
+        assertThatThrownBy(() -> userService.updateUser(5L, request("new@example.com")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void testDeleteMissingUserThrows() {
+        when(userRepository.deleteUserById(5L)).thenReturn(0);
+
+        assertThatThrownBy(() -> userService.deleteUser(5L)).isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void testConditionalUpdateReturnsNextVersion() {
+        when(userRepository.updateDetailsIfVersion(eq(5L), eq("User"), eq("new@example.com"), eq(30), any(), eq(3L)))
+                .thenReturn(1);
+
+        UserResponseDTO response = userService.updateUser(5L, request("new@example.com"), 3L);
+
+        assertThat(response.getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void testConditionalUpdateOfChangedUserThrowsConflict() {
+        when(userRepository.updateDetailsIfVersion(eq(5L), eq("User"), eq("new@example.com"), eq(30), any(), eq(3L)))
+                .thenReturn(0);
+        when(userRepository.existsById(5L)).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.updateUser(5L, request("new@example.com"), 3L))
+                .isInstanceOf(VersionConflictException.class);
+    }
+
+    @Test
+    void testGetUsersByIdsPreservesOrderAndReportsMissing() {
+        when(userRepository.findAllByIds(List.of(3L, 1L, 7L, 2L))).thenReturn(users(1, 3));
+
+        UserLookupDTO lookup = userService.getUsersByIds(List.of(3L, 1L, 7L, 1L, 2L));
+
+        assertThat(lookup.getItems()).extracting(UserResponseDTO::getId).containsExactly(3L, 1L, 2L);
+        assertThat(lookup.getMissingIds()).containsExactly(7L);
+    }
+
+    @Test
+    void testGetUsersByIdsChunksInQueries() {
+        List<Long> ids = LongStream.rangeClosed(1, 1000).boxed().toList();
+        when(userRepository.findAllByIds(any())).thenReturn(List.of());
+
+        UserLookupDTO lookup = userService.getUsersByIds(ids);
+
+        assertThat(lookup.getMissingIds()).hasSize(1000);
+        verify(userRepository, times(2)).findAllByIds(any());
+    }
+
+    @Test
+    void testConcurrentGetUserByIdSharesOneQuery() throws Exception {
+        User user = new User("User", "user5@example.com", 30);
+        user.setId(5L);
+        UserResponseDTO response = new UserResponseDTO(5L, "User", "user5@example.com", 0L);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(userRepository.findById(5L)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await();
+            return Optional.of(user);
+        });
+        when(userMapper.toResponseDto(user)).thenReturn(response);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<UserResponseDTO>> calls = new ArrayList<>();
+            calls.add(executor.submit(() -> userService.getUserById(5L)));
+            queryStarted.await();
+            for (int i = 0; i < 3; i++) {
+                calls.add(executor.submit(() -> userService.getUserById(5L)));
+            }
+
+            Counter coalesced = meterRegistry.get(MetricsConfig.COALESCING_COUNTER)
+                    .tag("lookup", "id").tag("outcome", "coalesced").counter();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coalesced.count() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            releaseQuery.countDown();
+
+            Set<UserResponseDTO> results = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<UserResponseDTO> call : calls) {
+                UserResponseDTO result = call.get(5, TimeUnit.SECONDS);
+                assertThat(result.getEmail()).isEqualTo("user5@example.com");
+                assertThat(result.getVersion()).isEqualTo(0L);
+                results.add(result);
+            }
+            assertThat(results).as("every caller gets its own instance").hasSize(4);
+            assertThat(coalesced.count()).isEqualTo(3.0);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(userRepository, times(1)).findById(5L);
+    }
+
+    @Test
+    void testUpdateDetachesLookupInFlight() throws Exception {
+        User before = new User("User", "old@example.com", 30);
+        before.setId(5L);
+        User after = new User("User", "new@example.com", 30);
+        after.setId(5L);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(userRepository.findById(5L)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await();
+            return Optional.of(before);
+        }).thenReturn(Optional.of(after));
+        when(userMapper.toResponseDto(any())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            return new UserResponseDTO(user.getId(), user.getName(), user.getEmail(), 0L);
+        });
+        when(userRepository.updateDetails(eq(5L), eq("User"), eq("new@example.com"), eq(30), any())).thenReturn(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<UserResponseDTO> staleLookup = executor.submit(() -> userService.getUserById(5L));
+            queryStarted.await();
+
+            userService.updateUser(5L, request("new@example.com"));
+
+            assertThat(userService.getUserById(5L).getEmail()).isEqualTo("new@example.com");
+            releaseQuery.countDown();
+            assertThat(staleLookup.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("old@example.com");
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(userRepository, times(2)).findById(5L);
+    }
+
+    @Test
+    void testGetUserByEmailNormalizesAndThrowsWhenMissing() {
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.getUserByEmail("Missing@Example.com"))
+                .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void testGetChangesMergesUpdatesAndDeletionsInOrder() {
+        Instant t = Instant.parse("2024-05-01T12:00:00Z");
+        when(userRepository.findChanges(any(), eq(0L), any(), eq(Limit.of(3)))).thenReturn(List.of(
+                new UserChangeDTO(1L, "A", "a@example.com", t),
+                new UserChangeDTO(4L, "B", "b@example.com", t.plusSeconds(2))));
+        when(userTombstoneRepository.findChanges(any(), eq(0L), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(new UserChangeDTO(2L, t.plusSeconds(1))));
+
+        UserChangesDTO changes = userService.getChanges(null, 2);
+
+        assertThat(changes.getChanges()).extracting(UserChangeDTO::getId).containsExactly(1L, 2L);
+        assertThat(changes.getChanges()).extracting(UserChangeDTO::getType)
+                .containsExactly(UserChangeDTO.Type.UPSERT, UserChangeDTO.Type.DELETE);
+        assertThat(changes.isHasMore()).isTrue();
+        assertThat(changes.getWatermark()).isEqualTo("2024-05-01T12:00:01Z_2");
+    }
+
+    @Test
+    void testGetChangesKeepsWatermarkWhenNothingChanged() {
+        UserChangesDTO changes = userService.getChanges("2024-05-01T12:00:01Z_2", null);
+
+        assertThat(changes.getChanges()).isEmpty();
+        assertThat(changes.isHasMore()).isFalse();
+        assertThat(changes.getWatermark()).isEqualTo("2024-05-01T12:00:01Z_2");
+        verify(userRepository).findChanges(eq(Instant.parse("2024-05-01T12:00:01Z")), eq(2L), any(),
+                eq(Limit.of(UserService.DEFAULT_PAGE_SIZE + 1)));
+    }
+
+    @Test
+    void testGetChangesStopsAtOldestOpenWriteTransaction() {
+        Instant horizon = Instant.parse("2024-05-01T12:00:05Z");
+        when(writeTransactionHorizon.horizon()).thenReturn(horizon);
+
+        userService.getChanges(null, null);
+
+        verify(userRepository).findChanges(any(), eq(0L), eq(horizon), any());
+        verify(userTombstoneRepository).findChanges(any(), eq(0L), eq(horizon), any());
+    }
+
+    @Test
+    void testGetChangesRejectsMalformedWatermark() {
+        assertThatThrownBy(() -> userService.getChanges("yesterday", null))
+                .isInstanceOf(InvalidWatermarkException.class);
+    }
+
+    @Test
+    void testDeleteUserRecordsTombstone() {
+        when(userRepository.deleteUserById(5L)).thenReturn(1);
+
+        userService.deleteUser(5L);
+
+        verify(userTombstoneRepository).save(argThat(tombstone -> tombstone.getUserId() == 5L));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof UserChangedEvent changed
+                && changed.change().getType() == UserChangeDTO.Type.DELETE && changed.change().getId() == 5L));
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import org.example.dto.UserCreationStatusDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.entity.User;
+import org.example.entity.UserRepository;
+import org.example.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs write-behind creations through the real flusher into embedded H2.
+ */
+class UserWriteBehindFlushTest {
+    private static ConfigurableApplicationContext context;
+    private static UserService userService;
+    private static UserRepository userRepository;
+
+    @BeforeAll
+    static void startContext() {
+        context = TestApplication.start(TestApplication.database("user-write-behind-test"),
+                "--users.write-behind.enabled=true", "--users.write-behind.batch-size=10",
+                "--users.write-behind.max-delay=20ms");
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @AfterAll
+    static void stopContext() {
+        context.close();
+    }
+
+    private static UserRequestDTO request(String email) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("Queued User");
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+
+    private static UserCreationStatusDTO awaitFinished(String ticket) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            UserCreationStatusDTO status = userService.getCreationStatus(ticket).orElseThrow();
+            if (status.getStatus() != UserCreationStatusDTO.Status.PENDING) {
+                return status;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Creation " + ticket + " was not flushed");
+    }
+
+    @Test
+    void testQueuedCreationsAreInsertedInBatches() throws Exception {
+        List<String> tickets = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            tickets.add(userService.submitUser(request("queued" + i + "@example.com")).getTicket());
+        }
+
+        for (int i = 0; i < tickets.size(); i++) {
+            UserCreationStatusDTO status = awaitFinished(tickets.get(i));
+            assertThat(status.getStatus()).isEqualTo(UserCreationStatusDTO.Status.CREATED);
+            User user = userRepository.findById(status.getId()).orElseThrow();
+            assertThat(user.getEmail()).isEqualTo("queued" + i + "@example.com");
+            assertThat(user.getAge()).isEqualTo(30);
+        }
+    }
+
+    @Test
+    void testQueuedCreationOfExistingEmailFails() throws Exception {
+        userRepository.saveAndFlush(new User("Existing", "existing@example.com", 40));
+
+        UserCreationStatusDTO status = awaitFinished(
+                userService.submitUser(request("Existing@example.com")).getTicket());
+
+        assertThat(status.getStatus()).isEqualTo(UserCreationStatusDTO.Status.FAILED);
+        assertThat(status.getReason()).contains("already exists");
+        assertThat(userRepository.findByEmail("existing@example.com").orElseThrow().getName()).isEqualTo("Existing");
+    }
+}
@@ -0,0 +1,272 @@
+package org.example;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.UserCreationStatusDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.entity.User;
+import org.example.entity.UserRepository;
+import org.example.mapper.UserMapper;
+import org.example.service.EmailAlreadyExistsException;
+import org.example.service.UserChangedEvent;
+import org.example.service.UserWriteBehindQueue;
+import org.example.service.WriteBehindQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserWriteBehindQueueTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    private Path journalDirectory;
+
+    private final UserMapper userMapper = new UserMapper();
+    private final AtomicLong ids = new AtomicLong();
+    private UserWriteBehindQueue queue;
+
+    @AfterEach
+    void stopQueue() throws Exception {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    private UserWriteBehindQueue queue(int capacity, String journal) {
+        queue = new UserWriteBehindQueue(userRepository, userMapper, transactionManager, eventPublisher,
+                new SimpleMeterRegistry(), true, capacity, 100, Duration.ofMillis(10), journal, false);
+        queue.start();
+        return queue;
+    }
+
+    private void stubSaves() {
+        when(userRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(ids.incrementAndGet()));
+            return users;
+        });
+    }
+
+    private static UserRequestDTO request(String email) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("User");
+        request.setEmail(email);
+        request.setAge(30);
+        return request;
+    }
+
+    private UserCreationStatusDTO awaitFinished(String ticket) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            UserCreationStatusDTO status = queue.getStatus(ticket).orElseThrow();
+            if (status.getStatus() != UserCreationStatusDTO.Status.PENDING) {
+                return status;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Creation " + ticket + " was not flushed");
+    }
+
+    @Test
+    void testSubmitReturnsPendingAndFlushesInBackground() throws Exception {
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of("taken@example.com"));
+        stubSaves();
+        queue(10, "");
+
+        UserCreationStatusDTO ann = queue.submit(request("Ann@example.com"));
+        UserCreationStatusDTO taken = queue.submit(request("taken@example.com"));
+
+        assertThat(ann.getStatus()).isEqualTo(UserCreationStatusDTO.Status.PENDING);
+        UserCreationStatusDTO created = awaitFinished(ann.getTicket());
+        assertThat(created.getStatus()).isEqualTo(UserCreationStatusDTO.Status.CREATED);
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getEmail()).isEqualTo("ann@example.com");
+        assertThat(awaitFinished(taken.getTicket()).getStatus()).isEqualTo(UserCreationStatusDTO.Status.FAILED);
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
+    }
+
+    @Test
+    void testSubmitRejectsEmailThatIsAlreadyPending() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findExistingEmails(anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return Set.of();
+        });
+        stubSaves();
+        queue(10, "");
+
+        UserCreationStatusDTO first = queue.submit(request("ann@example.com"));
+        assertThatThrownBy(() -> queue.submit(request("ANN@example.com")))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+        assertThat(awaitFinished(first.getTicket()).getStatus()).isEqualTo(UserCreationStatusDTO.Status.CREATED);
+    }
+
+    @Test
+    void testSubmitRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findExistingEmails(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return Set.of();
+        });
+        stubSaves();
+        queue(2, "");
+
+        UserCreationStatusDTO first = queue.submit(request("a@example.com"));
+        queue.submit(request("b@example.com"));
+
+        assertThatThrownBy(() -> queue.submit(request("c@example.com")))
+                .isInstanceOf(WriteBehindQueueFullException.class);
+        release.countDown();
+        awaitFinished(first.getTicket());
+    }
+
+    @Test
+    void testStartReplaysJournaledCreations() throws Exception {
+        Files.writeString(journalDirectory.resolve("users-0000000000000000000.journal"),
+                "{\"ticket\":\"t-1\",\"user\":{\"name\":\"Ann\",\"email\":\"ann@example.com\",\"age\":30}}\n"
+                        + "{\"ticket\":\"t-2\",\"user\":{\"na");
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        stubSaves();
+
+        queue(10, journalDirectory.toString());
+
+        assertThat(awaitFinished("t-1").getStatus()).isEqualTo(UserCreationStatusDTO.Status.CREATED);
+        assertThat(queue.getStatus("t-2")).isEmpty();
+        assertThat(journalDirectory.resolve("users-0000000000000000000.journal")).doesNotExist();
+    }
+
+    @Test
+    void testJournalIsNotReplayedBeforeStart() throws Exception {
+        Files.writeString(journalDirectory.resolve("users-0000000000000000000.journal"),
+                "{\"ticket\":\"t-1\",\"user\":{\"name\":\"Ann\",\"email\":\"ann@example.com\",\"age\":30}}\n");
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        stubSaves();
+
+        queue = new UserWriteBehindQueue(userRepository, userMapper, transactionManager, eventPublisher,
+                new SimpleMeterRegistry(), true, 10, 100, Duration.ofMillis(10), journalDirectory.toString(), false);
+        Thread.sleep(50);
+
+        assertThat(queue.isRunning()).isFalse();
+        assertThat(queue.getStatus("t-1")).isEmpty();
+        verifyNoInteractions(userRepository, eventPublisher);
+
+        queue.start();
+
+        assertThat(awaitFinished("t-1").getStatus()).isEqualTo(UserCreationStatusDTO.Status.CREATED);
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
+    }
+
+    @Test
+    void testStartCompletesReplayedCreationThatWasAlreadyFlushed() throws Exception {
+        Files.writeString(journalDirectory.resolve("users-0000000000000000000.journal"),
+                "{\"ticket\":\"t-1\",\"user\":{\"name\":\"Ann\",\"email\":\"ann@example.com\",\"age\":30}}\n");
+        User existing = new User("Ann", "ann@example.com", 30);
+        existing.setId(7L);
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of("ann@example.com"));
+        when(userRepository.findByEmail("ann@example.com")).thenReturn(Optional.of(existing));
+
+        queue(10, journalDirectory.toString());
+
+        UserCreationStatusDTO status = awaitFinished("t-1");
+        assertThat(status.getStatus()).isEqualTo(UserCreationStatusDTO.Status.CREATED);
+        assertThat(status.getId()).isEqualTo(7L);
+        verify(userRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void testErrorDuringFlushFailsCreationAndReleasesReservation() throws Exception {
+        when(userRepository.findExistingEmails(anyList()))
+                .thenThrow(new NoClassDefFoundError("org/h2/Driver"))
+                .thenReturn(Set.of());
+        stubSaves();
+        queue(10, "");
+
+        UserCreationStatusDTO failed = awaitFinished(queue.submit(request("ann@example.com")).getTicket());
+        UserCreationStatusDTO retried = awaitFinished(queue.submit(request("ann@example.com")).getTicket());
+
+        assertThat(failed.getStatus()).isEqualTo(UserCreationStatusDTO.Status.FAILED);
+        assertThat(failed.getReason()).contains("org/h2/Driver");
+        assertThat(retried.getStatus()).isEqualTo(UserCreationStatusDTO.Status.CREATED);
+    }
+
+    @Test
+    void testStopFlushesEveryAcceptedCreation() throws Exception {
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        stubSaves();
+        queue(10_000, "");
+        List<String> tickets = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(100);
+        ExecutorService submitters = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            submitters.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    try {
+                        tickets.add(queue.submit(request("user" + thread + "-" + i + "@example.com")).getTicket());
+                        started.countDown();
+                    } catch (WriteBehindQueueFullException e) {
+                        // stopped
+                    }
+                }
+            });
+        }
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        queue.stop();
+        submitters.shutdown();
+        assertThat(submitters.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(tickets).allSatisfy(ticket -> assertThat(queue.getStatus(ticket))
+                .hasValueSatisfying(status -> assertThat(status.getStatus()).isNotEqualTo(UserCreationStatusDTO.Status.PENDING)));
+    }
+
+    @Test
+    void testSubmitJournalsUntilFlushed() throws Exception {
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        stubSaves();
+        queue(10, journalDirectory.toString());
+
+        UserCreationStatusDTO status = queue.submit(request("ann@example.com"));
+        awaitFinished(status.getTicket());
+
+        try (var files = Files.list(journalDirectory)) {
+            assertThat(files.toList()).allSatisfy(file -> assertThat(Files.size(file)).isZero());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.benchmark;
+
+import org.example.TestApplication;
+import org.example.dao.UserDAOImpl;
+import org.example.entity.User;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared setup of the benchmarks: Spring context and standalone DAO, both on embedded H2.
+ */
+final class BenchmarkSupport {
+
+    private static final AtomicLong EMAIL_SEQUENCE = new AtomicLong();
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Starts the application context without the web layer.
+     */
+    static ConfigurableApplicationContext startContext() {
+        return TestApplication.start();
+    }
+
+    /**
+     * Creates a standalone Hibernate DAO connected to a private in-memory H2 database.
+     */
+    static UserDAOImpl createDao() {
+        System.setProperty("hibernate.connection.url", "jdbc:h2:mem:dao-benchmark;DB_CLOSE_DELAY=-1");
+        System.setProperty("hibernate.connection.username", "sa");
+        System.setProperty("hibernate.connection.password", "");
+        return new UserDAOImpl();
+    }
+
+    /**
+     * Returns an email address that was not handed out before in this JVM.
+     */
+    static String uniqueEmail() {
+        return "user" + EMAIL_SEQUENCE.incrementAndGet() + "@example.com";
+    }
+
+    /**
+     * Builds a new, not yet persisted user with a unique email.
+     */
+    static User newUser() {
+        User user = new User("Benchmark User", uniqueEmail(), 30);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
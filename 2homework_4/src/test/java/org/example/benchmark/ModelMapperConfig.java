@@ -1,4 +1,4 @@
-package org.example.mapper;
+package org.example.benchmark;
 
 import org.example.entity.User;
 import org.example.dto.UserRequestDTO;
@@ -6,22 +6,23 @@ import org.example.dto.UserResponseDTO;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.TypeMap;
 import org.modelmapper.convention.MatchingStrategies;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
 
 /**
- * Configuration class responsible for defining the bean for mapping between domain models and DTOs using ModelMapper library.
+ * The ModelMapper setup the application used before the hand-written {@link org.example.mapper.UserMapper},
+ * kept only as the baseline of {@link UserMappingBenchmark}. Not a Spring configuration, so the application
+ * contexts started by the tests do not pay for its reflective TypeMap setup.
  */
-@Configuration
-public class ModelMapperConfig {
+final class ModelMapperConfig {
+
+    private ModelMapperConfig() {
+    }
 
     /**
-     * Configures and creates a {@code ModelMapper} bean which maps between different types.
+     * Configures and creates a {@code ModelMapper} which maps between different types.
      * 
      * @return configured instance of {@code ModelMapper}.
      */
-    @Bean
-    public ModelMapper modelMapper() {
+    static ModelMapper modelMapper() {
         ModelMapper mapper = new ModelMapper();
         
         /*
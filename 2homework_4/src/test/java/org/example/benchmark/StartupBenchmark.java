@@ -0,0 +1,94 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the time from launching the packaged application until it serves its first request.
+ * <p>
+ * System properties:
+ * <ul>
+ *     <li>{@code startup.jar} - jar to start, default {@code target/2homework_4-1.0-SNAPSHOT.jar}</li>
+ *     <li>{@code startup.jvmArgs} - extra JVM options, e.g.
+ *     {@code -XX:SharedArchiveFile=target/extracted/application.jsa -Dspring.aot.enabled=true}</li>
+ *     <li>{@code startup.runs} - number of launches, default 5</li>
+ * </ul>
+ * Each launch time is printed and all of them are written to {@code target/startup-result.json}.
+ */
+public final class StartupBenchmark {
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String jar = System.getProperty("startup.jar", "target/2homework_4-1.0-SNAPSHOT.jar");
+        String jvmArgs = System.getProperty("startup.jvmArgs", "");
+        int runs = Integer.getInteger("startup.runs", 5);
+
+        List<Long> millis = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            long elapsed = measure(jar, jvmArgs);
+            millis.add(elapsed);
+            System.out.printf("run %d: first request served after %d ms%n", run, elapsed);
+        }
+
+        long[] sorted = millis.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("median: %d ms%n", sorted[sorted.length / 2]);
+        Files.writeString(Path.of("target", "startup-result.json"), String.format(
+                "{\"jar\":\"%s\",\"jvmArgs\":\"%s\",\"millis\":[%s]}%n", jar, jvmArgs,
+                millis.stream().map(String::valueOf).collect(Collectors.joining(","))));
+    }
+
+    private static long measure(String jar, String jvmArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        command.addAll(List.of("-jar", jar, "--server.port=" + port));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/users?limit=1"))
+                .GET().build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
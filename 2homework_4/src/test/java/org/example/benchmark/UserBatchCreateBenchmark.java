@@ -0,0 +1,68 @@
+package org.example.benchmark;
+
+import org.example.dto.UserRequestDTO;
+import org.example.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares bulk creation through {@link UserService#createUsers} with N calls to {@link UserService#createUser}
+ * against the embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserBatchCreateBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private List<UserRequestDTO> requests;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkSupport.startContext();
+        userService = context.getBean(UserService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareRequests() {
+        requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserRequestDTO request = new UserRequestDTO();
+            request.setName("Benchmark User");
+            request.setEmail(BenchmarkSupport.uniqueEmail());
+            request.setAge(30);
+            requests.add(request);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void createOneByOne(Blackhole blackhole) {
+        for (UserRequestDTO request : requests) {
+            blackhole.consume(userService.createUser(request));
+        }
+    }
+
+    @Benchmark
+    public void createBatch(Blackhole blackhole) {
+        blackhole.consume(userService.createUsers(requests));
+    }
+}
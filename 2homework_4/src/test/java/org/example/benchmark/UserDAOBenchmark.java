@@ -0,0 +1,68 @@
+package org.example.benchmark;
+
+import org.example.dao.UserDAOImpl;
+import org.example.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CRUD methods of the standalone Hibernate {@link UserDAOImpl} against the embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserDAOBenchmark {
+
+    private static final int SEEDED_USERS = 1_000;
+
+    private UserDAOImpl userDAO;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        userDAO = BenchmarkSupport.createDao();
+        ids = new long[SEEDED_USERS];
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            User user = BenchmarkSupport.newUser();
+            userDAO.saveUser(user);
+            ids[i] = user.getId();
+        }
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public User getUserById() throws Exception {
+        return userDAO.getUserById(randomId());
+    }
+
+    @Benchmark
+    public List<User> getUsers() throws Exception {
+        return userDAO.getUsers(randomId(), 100);
+    }
+
+    @Benchmark
+    public User saveAndDeleteUser() throws Exception {
+        User user = BenchmarkSupport.newUser();
+        userDAO.saveUser(user);
+        userDAO.deleteUser(user.getId());
+        return user;
+    }
+
+    @Benchmark
+    public User updateUser() throws Exception {
+        User user = userDAO.getUserById(randomId());
+        user.setAge(ThreadLocalRandom.current().nextInt(18, 99));
+        userDAO.updateUser(user);
+        return user;
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.example.dto.UserResponseDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encode and decode time of {@link UserResponseDTO} lists in the negotiable formats JSON, CBOR and Smile.
+ * Payload sizes are asserted, not measured, by {@code UserFormatNegotiationTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private List<UserResponseDTO> users;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        TypeReference<List<UserResponseDTO>> type = new TypeReference<>() {
+        };
+        writer = mapper.writerFor(type);
+        reader = mapper.readerFor(type);
+
+        users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            UserResponseDTO dto = new UserResponseDTO();
+            dto.setId(id);
+            dto.setName("Benchmark User " + id);
+            dto.setEmail("user" + id + "@example.com");
+            users.add(dto);
+        }
+        payload = writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> decode() throws IOException {
+        return reader.readValue(payload);
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.dto.UserResponseDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization and deserialization of {@link UserResponseDTO} lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserJsonBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private List<UserResponseDTO> users;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TypeReference<List<UserResponseDTO>> type = new TypeReference<>() {
+        };
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+
+        users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            UserResponseDTO dto = new UserResponseDTO();
+            dto.setId(id);
+            dto.setName("Benchmark User " + id);
+            dto.setEmail("user" + id + "@example.com");
+            users.add(dto);
+        }
+        json = writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
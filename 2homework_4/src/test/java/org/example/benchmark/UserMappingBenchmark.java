@@ -0,0 +1,67 @@
+package org.example.benchmark;
+
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.entity.User;
+import org.example.mapper.UserMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-call cost of DTO mapping through the reflective {@link ModelMapper}
+ * against the hand-written {@link UserMapper}. Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private UserMapper userMapper;
+
+    private User user;
+
+    private UserRequestDTO request;
+
+    @Setup
+    public void setUp() {
+        modelMapper = ModelMapperConfig.modelMapper();
+        userMapper = new UserMapper();
+
+        user = new User("Benchmark User", "benchmark@example.com", 30);
+        user.setId(42L);
+        user.setCreatedAt(LocalDateTime.now());
+
+        request = new UserRequestDTO();
+        request.setName("Benchmark User");
+        request.setEmail("benchmark@example.com");
+        request.setAge(30);
+    }
+
+    @Benchmark
+    public UserResponseDTO modelMapperToResponse() {
+        return modelMapper.map(user, UserResponseDTO.class);
+    }
+
+    @Benchmark
+    public UserResponseDTO userMapperToResponse() {
+        return userMapper.toResponseDto(user);
+    }
+
+    @Benchmark
+    public User modelMapperToEntity() {
+        return modelMapper.map(request, User.class);
+    }
+
+    @Benchmark
+    public User userMapperToEntity() {
+        return userMapper.toEntity(request);
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.benchmark;
+
+import org.example.dto.UserBatchResultDTO;
+import org.example.dto.UserPageDTO;
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link UserService} methods end to end against the embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int SEEDED_USERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+
+    private UserService userService;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        userService = context.getBean(UserService.class);
+
+        List<UserRequestDTO> requests = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            requests.add(newRequest());
+        }
+        ids = userService.createUsers(requests).stream()
+                .mapToLong(UserBatchResultDTO::getId)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static UserRequestDTO newRequest() {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setName("Benchmark User");
+        request.setEmail(BenchmarkSupport.uniqueEmail());
+        request.setAge(30);
+        return request;
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public UserResponseDTO getUserById() {
+        return userService.getUserById(randomId());
+    }
+
+    @Benchmark
+    public UserPageDTO getUsersPage() {
+        return userService.getUsersPage(randomId(), UserService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public UserResponseDTO createUser() {
+        return userService.createUser(newRequest());
+    }
+
+    @Benchmark
+    public UserResponseDTO updateUser() {
+        return userService.updateUser(randomId(), newRequest());
+    }
+}
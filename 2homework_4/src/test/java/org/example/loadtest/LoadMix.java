@@ -0,0 +1,76 @@
+package org.example.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted mix of user API operations, parsed from a spec such as {@code get=50,list=20,create=10,update=15,delete=5}.
+ * Weights are relative and do not have to add up to 100.
+ */
+final class LoadMix {
+
+    /**
+     * Operations of the {@code /api/v1/users} surface driven by the load test.
+     */
+    enum Operation {
+        CREATE, GET, UPDATE, DELETE, LIST
+    }
+
+    static final String DEFAULT_SPEC = "get=50,list=20,create=10,update=15,delete=5";
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private LoadMix(Map<Operation, Integer> weights) {
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Parses a comma separated list of {@code operation=weight} pairs.
+     *
+     * @throws IllegalArgumentException if an operation is unknown, a weight is negative or all weights are zero
+     */
+    static LoadMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : spec.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operation with a positive weight: " + spec);
+        }
+        return new LoadMix(weights);
+    }
+
+    /**
+     * Picks the next operation according to the weights.
+     */
+    Operation next(RandomGenerator random) {
+        int value = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+}
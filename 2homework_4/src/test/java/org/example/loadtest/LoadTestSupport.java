@@ -0,0 +1,38 @@
+package org.example.loadtest;
+
+import org.example.TestApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Shared setup of the load drivers: the application on a random port and an HTTP client to call it.
+ */
+final class LoadTestSupport {
+
+    private LoadTestSupport() {
+    }
+
+    /**
+     * Starts the application on a random port with the given profiles.
+     * The program arguments are passed on and override the defaults, e.g. {@code --spring.datasource.url=...}.
+     */
+    static ConfigurableApplicationContext start(String[] args, String... profiles) {
+        return TestApplication.startOnRandomPort(profiles, args);
+    }
+
+    /**
+     * Returns the base URL of an application started with {@link #start}.
+     */
+    static String baseUrl(ConfigurableApplicationContext context) {
+        return TestApplication.baseUrl(context);
+    }
+
+    /**
+     * Creates the HTTP client used to drive the load.
+     */
+    static HttpClient newClient() {
+        return HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+}
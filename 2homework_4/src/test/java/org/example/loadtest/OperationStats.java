@@ -0,0 +1,143 @@
+package org.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome statistics of one operation.
+ * <p>
+ * Two histograms are kept: the response time is measured from the moment the request was <em>scheduled</em>
+ * to be sent, the service time from the moment it was actually sent. When the server stalls, the load
+ * generator falls behind its schedule; the response time still charges that waiting to the requests that
+ * should have been sent in the meantime, so it is corrected for coordinated omission, while the service
+ * time is not.
+ */
+final class OperationStats {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final Recorder responseTime = new Recorder(3);
+    private final Recorder serviceTime = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final Map<Integer, AtomicLong> statusCodes = new ConcurrentHashMap<>();
+
+    private Histogram responseHistogram;
+    private Histogram serviceHistogram;
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param intendedStart nano time at which the request was scheduled
+     * @param actualStart   nano time at which the request was sent
+     * @param end           nano time at which the response (or failure) arrived
+     * @param status        HTTP status code, or {@code -1} for I/O failures
+     * @param success       whether the status is expected for this operation
+     */
+    void record(long intendedStart, long actualStart, long end, int status, boolean success) {
+        responseTime.recordValue(end - intendedStart);
+        serviceTime.recordValue(end - actualStart);
+        statusCodes.computeIfAbsent(status, code -> new AtomicLong()).incrementAndGet();
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Counts a request that could not be issued, e.g. a delete when no deletable user is left.
+     */
+    void skip() {
+        skipped.increment();
+    }
+
+    /**
+     * Discards everything recorded so far, used at the end of the warm-up phase.
+     */
+    void reset() {
+        responseTime.reset();
+        serviceTime.reset();
+        errors.reset();
+        skipped.reset();
+        statusCodes.clear();
+    }
+
+    /**
+     * Takes the histograms of the measurement phase; call once, after all requests have completed.
+     */
+    void complete() {
+        responseHistogram = responseTime.getIntervalHistogram();
+        serviceHistogram = serviceTime.getIntervalHistogram();
+    }
+
+    long count() {
+        return responseHistogram.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    double errorRate() {
+        return count() == 0 ? 0.0 : (double) errors() / count();
+    }
+
+    double responseTimeMillis(double percentile) {
+        return responseHistogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Prints one summary line: count, throughput, error rate and percentiles of both histograms in milliseconds.
+     */
+    void printSummary(PrintStream out, double seconds) {
+        out.printf("%-7s count=%-8d rate=%8.1f/s errors=%.2f%% skipped=%d status=%s%n",
+                name, count(), count() / seconds, errorRate() * 100, skipped.sum(), sortedStatusCodes());
+        printPercentiles(out, "response", responseHistogram);
+        printPercentiles(out, "service", serviceHistogram);
+    }
+
+    private static void printPercentiles(PrintStream out, String label, Histogram histogram) {
+        out.printf("        %-8s p50=%8.2f p90=%8.2f p99=%8.2f p99.9=%8.2f max=%8.2f ms%n", label,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    private Map<Integer, Long> sortedStatusCodes() {
+        Map<Integer, Long> sorted = new TreeMap<>();
+        statusCodes.forEach((status, count) -> sorted.put(status, count.get()));
+        return sorted;
+    }
+
+    /**
+     * Writes both full percentile distributions in the HdrHistogram text format (values in milliseconds),
+     * which can be plotted and compared between runs with the HdrHistogram plotter.
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        write(directory.resolve(name + "-response.hgrm"), responseHistogram);
+        write(directory.resolve(name + "-service.hgrm"), serviceHistogram);
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.entity.User;
+import org.example.entity.UserRepository;
+import org.example.loadtest.LoadMix.Operation;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test of the whole {@code /api/v1/users} surface.
+ * <p>
+ * Boots the application on a random port (embedded H2 unless the program arguments point it elsewhere,
+ * e.g. {@code --spring.datasource.url=...}), seeds users directly through the repository and then sends
+ * create/get/update/delete/list requests in a configurable mix at a fixed target rate. Requests are
+ * scheduled on a fixed timeline and never wait for earlier responses, so a stalled server shows up as
+ * latency instead of as a lower request rate; see {@link OperationStats} for how latency is measured.
+ * <p>
+ * Settings are read from system properties:
+ * <ul>
+ *     <li>{@code rate} - requests per second, default 500</li>
+ *     <li>{@code duration} / {@code warmup} - measured and discarded seconds, default 60 / 10</li>
+ *     <li>{@code mix} - operation weights, default {@value LoadMix#DEFAULT_SPEC}</li>
+ *     <li>{@code users} - number of users seeded before the run, default 10000</li>
+ *     <li>{@code maxInFlight} - cap on outstanding requests, default 2000</li>
+ *     <li>{@code output} - directory for the {@code .hgrm} percentile distributions, default target/loadtest</li>
+ *     <li>{@code maxP99Millis} / {@code maxErrorRate} - optional limits; the run exits with status 1 if exceeded</li>
+ * </ul>
+ * Run with {@code mvn -Ploadtest verify}, which passes the {@code loadtest.*} Maven properties on.
+ */
+public final class UserApiLoadTest {
+
+    private static final String USERS_PATH = "/api/v1/users";
+    private static final int SEED_CHUNK_SIZE = 1000;
+
+    private final HttpClient client = LoadTestSupport.newClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final String baseUrl;
+    private final LoadMix mix;
+    private final Semaphore inFlight;
+
+    /**
+     * Ids that are read and updated but never deleted, so that GET and PUT are expected to succeed.
+     */
+    private final long[] stableIds;
+
+    /**
+     * Ids that may be deleted: seeded ones plus the ids of users created during the run.
+     */
+    private final Queue<Long> deletableIds;
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final OperationStats total = new OperationStats("total");
+
+    private UserApiLoadTest(String baseUrl, LoadMix mix, int maxInFlight, long[] stableIds, Queue<Long> deletableIds) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.stableIds = stableIds;
+        this.deletableIds = deletableIds;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation.name().toLowerCase()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("rate", 500);
+        int duration = Integer.getInteger("duration", 60);
+        int warmup = Integer.getInteger("warmup", 10);
+        int users = Integer.getInteger("users", 10_000);
+        int maxInFlight = Integer.getInteger("maxInFlight", 2000);
+        LoadMix mix = LoadMix.parse(System.getProperty("mix", LoadMix.DEFAULT_SPEC));
+        Path output = Path.of(System.getProperty("output", "target/loadtest"));
+
+        boolean passed;
+        try (ConfigurableApplicationContext context = LoadTestSupport.start(args)) {
+            String baseUrl = LoadTestSupport.baseUrl(context);
+            List<Long> seeded = seed(context.getBean(UserRepository.class), users);
+
+            int stableCount = Math.max(1, seeded.size() / 2);
+            long[] stableIds = seeded.subList(0, stableCount).stream().mapToLong(Long::longValue).toArray();
+            Queue<Long> deletableIds = new ConcurrentLinkedQueue<>(seeded.subList(stableCount, seeded.size()));
+
+            UserApiLoadTest loadTest = new UserApiLoadTest(baseUrl, mix, maxInFlight, stableIds, deletableIds);
+            loadTest.drive(rate, warmup);
+            loadTest.reset();
+            loadTest.drive(rate, duration);
+            passed = loadTest.report(duration, output);
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Inserts the initial users in batches, bypassing the HTTP layer, and returns their ids.
+     */
+    private static List<Long> seed(UserRepository userRepository, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        List<User> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+        for (int i = 0; i < count; i++) {
+            chunk.add(new User("Seed User " + i, "seed" + i + "@example.com", 18 + i % 60));
+            if (chunk.size() == SEED_CHUNK_SIZE || i == count - 1) {
+                userRepository.saveAll(chunk).forEach(saved -> ids.add(saved.getId()));
+                chunk.clear();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Sends {@code rate * seconds} requests on a fixed schedule and waits until all of them have completed.
+     */
+    private void drive(int rate, int seconds) throws InterruptedException {
+        long intervalNanos = 1_000_000_000L / rate;
+        long requests = (long) rate * seconds;
+        SplittableRandom random = new SplittableRandom();
+        Phaser pending = new Phaser(1);
+
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long now;
+            while ((now = System.nanoTime()) < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+            }
+
+            Operation operation = mix.next(random);
+            HttpRequest request = request(operation, random);
+            if (request == null) {
+                stats.get(operation).skip();
+                continue;
+            }
+
+            inFlight.acquire();
+            pending.register();
+            long actualStart = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        long end = System.nanoTime();
+                        int status = error == null ? response.statusCode() : -1;
+                        boolean success = status >= 200 && status < 300 || status == 304;
+                        stats.get(operation).record(intendedStart, actualStart, end, status, success);
+                        total.record(intendedStart, actualStart, end, status, success);
+                        if (success && operation == Operation.CREATE) {
+                            rememberCreated(response.body());
+                        }
+                        inFlight.release();
+                        pending.arriveAndDeregister();
+                    });
+        }
+        pending.arriveAndAwaitAdvance();
+    }
+
+    /**
+     * Builds the request for an operation, or returns {@code null} if it cannot be issued right now.
+     */
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        return switch (operation) {
+            case CREATE -> json(URI.create(baseUrl + USERS_PATH))
+                    .POST(HttpRequest.BodyPublishers.ofString(userJson()))
+                    .build();
+            case GET -> HttpRequest.newBuilder(userUri(randomStableId(random))).GET().build();
+            case UPDATE -> json(userUri(randomStableId(random)))
+                    .PUT(HttpRequest.BodyPublishers.ofString(userJson()))
+                    .build();
+            case DELETE -> {
+                Long id = deletableIds.poll();
+                yield id == null ? null : HttpRequest.newBuilder(userUri(id)).DELETE().build();
+            }
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + USERS_PATH + "?limit=20&cursor="
+                    + randomStableId(random))).GET().build();
+        };
+    }
+
+    private long randomStableId(SplittableRandom random) {
+        return stableIds[random.nextInt(stableIds.length)];
+    }
+
+    private URI userUri(long id) {
+        return URI.create(baseUrl + USERS_PATH + "/" + id);
+    }
+
+    private static HttpRequest.Builder json(URI uri) {
+        return HttpRequest.newBuilder(uri).header("Content-Type", "application/json");
+    }
+
+    private String userJson() {
+        return "{\"name\":\"Load User\",\"email\":\"load" + emailSequence.incrementAndGet() + "@example.com\",\"age\":30}";
+    }
+
+    private void rememberCreated(String body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).get("id");
+            if (id != null && id.canConvertToLong()) {
+                deletableIds.add(id.asLong());
+            }
+        } catch (IOException e) {
+            // a malformed body is not a latency problem; the request was already counted
+        }
+    }
+
+    private void reset() {
+        stats.values().forEach(OperationStats::reset);
+        total.reset();
+    }
+
+    /**
+     * Prints the summary, writes the distributions and checks the optional limits.
+     *
+     * @return whether the run stayed within the limits
+     */
+    private boolean report(int seconds, Path output) throws IOException {
+        List<OperationStats> all = new ArrayList<>(stats.values());
+        all.add(total);
+        for (OperationStats operationStats : all) {
+            operationStats.complete();
+            if (operationStats.count() > 0) {
+                operationStats.printSummary(System.out, seconds);
+                operationStats.writeDistributions(output);
+            }
+        }
+        System.out.println("Percentile distributions written to " + output.toAbsolutePath());
+
+        boolean passed = true;
+        String maxP99Millis = System.getProperty("maxP99Millis");
+        if (maxP99Millis != null && total.responseTimeMillis(99) > Double.parseDouble(maxP99Millis)) {
+            System.out.printf("FAILED: p99 response time %.2f ms exceeds %s ms%n", total.responseTimeMillis(99), maxP99Millis);
+            passed = false;
+        }
+        String maxErrorRate = System.getProperty("maxErrorRate");
+        if (maxErrorRate != null && total.errorRate() > Double.parseDouble(maxErrorRate)) {
+            System.out.printf("FAILED: error rate %.4f exceeds %s%n", total.errorRate(), maxErrorRate);
+            passed = false;
+        }
+        return passed;
+    }
+}
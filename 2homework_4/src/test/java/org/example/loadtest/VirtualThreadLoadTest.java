@@ -0,0 +1,66 @@
+package org.example.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load driver comparing throughput of the REST layer on platform threads and on virtual threads.
+ * Boots the application twice on a random port, without and with the "virtual-threads" profile,
+ * and keeps {@code concurrency} requests in flight until {@code requests} have completed.
+ * <p>
+ * Needs a Java 21 runtime, where the profile takes effect; run it with {@code mvn -Pjava21 verify}.
+ * Any program arguments are passed on to the application, e.g. {@code --spring.datasource.url=...}
+ * to run against a real database where JDBC latency dominates.
+ */
+public final class VirtualThreadLoadTest {
+
+    private VirtualThreadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21, this is Java " + Runtime.version()
+                    + "; both runs would use platform threads");
+        }
+        int concurrency = Integer.getInteger("concurrency", 1000);
+        int requests = Integer.getInteger("requests", 50_000);
+
+        for (String profile : new String[]{"default", "virtual-threads"}) {
+            try (ConfigurableApplicationContext context = LoadTestSupport.start(args, profile)) {
+                run(profile, LoadTestSupport.baseUrl(context), concurrency, requests);
+            }
+        }
+    }
+
+    private static void run(String profile, String baseUrl, int concurrency, int requests) throws Exception {
+        HttpClient client = LoadTestSupport.newClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/users?limit=20")).GET().build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong errors = new AtomicLong();
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(futures).exceptionally(error -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-16s concurrency=%d requests=%d time=%.2fs throughput=%.0f req/s errors=%d%n",
+                profile, concurrency, requests, seconds, requests / seconds, errors.get());
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.swagger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaticOpenApiControllerTest {
+
+    @Test
+    void testAcceptsGzipWhenListed() {
+        assertThat(StaticOpenApiController.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(StaticOpenApiController.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+    }
+
+    @Test
+    void testRejectsGzipWithZeroQuality() {
+        assertThat(StaticOpenApiController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(StaticOpenApiController.acceptsGzip("deflate, gzip; q=0.000")).isFalse();
+        assertThat(StaticOpenApiController.acceptsGzip("*, gzip;q=0")).isFalse();
+    }
+
+    @Test
+    void testWildcardCoversGzip() {
+        assertThat(StaticOpenApiController.acceptsGzip("*")).isTrue();
+        assertThat(StaticOpenApiController.acceptsGzip("br, *;q=0")).isFalse();
+    }
+
+    @Test
+    void testRejectsGzipWhenAbsent() {
+        assertThat(StaticOpenApiController.acceptsGzip(null)).isFalse();
+        assertThat(StaticOpenApiController.acceptsGzip("identity")).isFalse();
+        assertThat(StaticOpenApiController.acceptsGzip("gzipx")).isFalse();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.swagger;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.security.SecurityRequirement;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SwaggerConfigTest {
+
+    @Test
+    void testAuthorizationHeaderIsOptional() {
+        OpenAPI api = new SwaggerConfig().api();
+
+        assertThat(api.getSecurity()).containsExactly(
+                new SecurityRequirement().addList("Authorization"), new SecurityRequirement());
+        assertThat(api.getComponents().getSecuritySchemes()).containsOnlyKeys("Authorization");
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.TestApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build-time generator of the OpenAPI document, run by the "openapi" Maven profile.
+ * Boots the application once, fetches the document springdoc builds from the controller annotations
+ * and writes it, plus a gzip-compressed copy, to the given directory.
+ * springdoc derives the {@code servers} entry from the request, which here points at the generator's random port,
+ * so it is removed: without it clients resolve the paths against the host that served the document.
+ */
+public final class OpenApiDocumentGenerator {
+
+    private OpenApiDocumentGenerator() {
+    }
+
+    /**
+     * @param args output directory, e.g. {@code target/classes/openapi}
+     */
+    public static void main(String[] args) throws Exception {
+        Path outputDirectory = Path.of(args[0]);
+        byte[] document;
+        try (ConfigurableApplicationContext context =
+                     TestApplication.startOnRandomPort("--springdoc.api-docs.enabled=true")) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(TestApplication.baseUrl(context) + "/v3/api-docs"))
+                    .GET().build();
+            HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                    .send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("OpenAPI document could not be fetched: HTTP " + response.statusCode());
+            }
+            document = withoutServers(response.body());
+        }
+
+        Files.createDirectories(outputDirectory);
+        Files.write(outputDirectory.resolve("openapi.json"), document);
+        writeGzip(outputDirectory.resolve("openapi.json.gz"), document);
+    }
+
+    private static byte[] withoutServers(byte[] document) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = (ObjectNode) mapper.readTree(document);
+        root.remove("servers");
+        return mapper.writeValueAsBytes(root);
+    }
+
+    private static void writeGzip(Path file, byte[] content) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file)) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        }
+    }
+}